@@ -0,0 +1,14 @@
+#!/bin/sh
+# Runs the JMH benchmarks of the framework layer against the in-memory StubWebDriver, see src/jmh/java.
+# Usage: scripts/run-benchmarks.sh [JMH options], e.g. scripts/run-benchmarks.sh PageObjectBenchmark -wi 1 -i 3
+# Every benchmark runs single-threaded and with BENCH_THREADS threads (default 4). The results are written to
+# target/jmh/results-<threads>.json, which can be compared between commits.
+set -e
+cd "$(dirname "$0")/.."
+
+mvn -B -q -Pjmh compile dependency:build-classpath -Dmdep.outputFile=target/jmh-classpath.txt
+mkdir -p target/jmh
+for threads in 1 "${BENCH_THREADS:-4}"; do
+    java -cp "target/classes:$(cat target/jmh-classpath.txt)" org.openjdk.jmh.Main \
+        -t "$threads" -rf json -rff "target/jmh/results-$threads.json" "$@"
+done
@@ -0,0 +1,10 @@
+#!/bin/sh
+# Runs the login flow of the page objects as a load test, see LoginLoad and Utils.LoadRunner.
+# Usage: scripts/run-load.sh [JVM options], e.g. scripts/run-load.sh -Dbrowser=http -Dtarget=standin -Dload.users=200
+# The report is written to target/load-report.json. Navigation timings are not kept per sample during a load run.
+# TCP_NODELAY of the stand-in server has to be set before the JVM creates its first HttpServer, so it is set here.
+set -e
+cd "$(dirname "$0")/.."
+
+mvn -B -q compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+exec java -Dperf.capture=false -Dsun.net.httpserver.nodelay=true "$@" -cp "target/classes:$(cat target/classpath.txt)" LoginLoad
@@ -0,0 +1,36 @@
+#!/bin/sh
+# Runs the tests in several shards on this machine, each one in its own JVM, and merges their reports.
+# Usage: scripts/run-shards.sh [shard count] [further Maven options]
+# The reports of shard i are written to target/shards/i, the merged reports to target/merged.
+set -e
+cd "$(dirname "$0")/.."
+
+COUNT=${1:-2}
+[ $# -gt 0 ] && shift
+
+mvn -B -q test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+rm -rf target/shards target/merged
+
+PIDS=""
+INDEX=0
+while [ "$INDEX" -lt "$COUNT" ]; do
+  DIR="$PWD/target/shards/$INDEX"
+  mkdir -p "$DIR"
+  mvn -B surefire:test "$@" \
+    -Dshard.index="$INDEX" -Dshard.count="$COUNT" \
+    -Dsurefire.reportsDirectory="$DIR/surefire-reports" \
+    -Dallure.results.directory="$DIR/allure-results" \
+    -Dresults.file="$DIR/test-results.jsonl" \
+    -Dtimings.file="$DIR/action-timings.json" \
+    -Dlog.file="$DIR/logs/test-run.%g.log" > "$DIR/maven.log" 2>&1 &
+  PIDS="$PIDS $!"
+  INDEX=$((INDEX + 1))
+done
+
+STATUS=0
+for PID in $PIDS; do
+  wait "$PID" || STATUS=1
+done
+
+java -cp "target/classes:$(cat target/classpath.txt)" Utils.ShardReportMerger target/merged target/shards/*
+exit $STATUS
@@ -0,0 +1,97 @@
+package Benchmarks;
+
+import Utils.Locator;
+import Utils.Selectors;
+import Utils.StubWebDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures how locators are resolved: the conversion of a {@link By} into a CSS selector and the lookup
+ * of the elements on the login page of the {@link StubWebDriver}, without the element cache of the page objects.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Dlog.level=INFO", "-Dlog.console=false", "-Dlog.file=", "-Dperf.capture=false"})
+public class LocatorBenchmark {
+
+    private static final By NESTED_PASSWORD_FIELD = By.cssSelector("#content .example form > .row input[type='password']");
+
+    /**
+     * A stub session with the login page opened.
+     */
+    @State(Scope.Thread)
+    public static class Page {
+        StubWebDriver driver;
+
+        @Setup(Level.Trial)
+        public void open() {
+            driver = StubWebDriver.loginApp();
+            driver.get(driver.url("/login"));
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            driver.quit();
+        }
+    }
+
+    /**
+     * The conversion of the locators of the page objects into CSS selectors.
+     */
+    @Benchmark
+    public void toCss(Blackhole blackhole) {
+        blackhole.consume(Selectors.toCss(Locator.usernameField));
+        blackhole.consume(Selectors.toCss(Locator.loginButton));
+    }
+
+    /**
+     * An id locator.
+     */
+    @Benchmark
+    public WebElement findById(Page page) {
+        return page.driver.findElement(Locator.usernameField);
+    }
+
+    /**
+     * An attribute selector.
+     */
+    @Benchmark
+    public WebElement findByAttribute(Page page) {
+        return page.driver.findElement(Locator.loginButton);
+    }
+
+    /**
+     * A selector with descendant and child combinators.
+     */
+    @Benchmark
+    public WebElement findNested(Page page) {
+        return page.driver.findElement(NESTED_PASSWORD_FIELD);
+    }
+
+    /**
+     * A locator of an element which is not on the page, which has to check every element.
+     */
+    @Benchmark
+    public List<WebElement> findAbsent(Page page) {
+        return page.driver.findElements(Locator.errorMessage);
+    }
+}
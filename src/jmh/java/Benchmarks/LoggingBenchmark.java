@@ -0,0 +1,75 @@
+package Benchmarks;
+
+import Utils.LoggerUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class measures the logging throughput of the test threads with the {@link LoggerUtil} logger at level INFO.
+ * <p>
+ * The records are handed to the asynchronous handler, which discards them since console and file output are
+ * switched off, so the numbers show the cost on the logging thread. The logging of a message below the level
+ * is measured with a supplier and with a message which is built before the call.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Dlog.level=INFO", "-Dlog.console=false", "-Dlog.file="})
+public class LoggingBenchmark {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger();
+
+    /**
+     * The values of a typical log message.
+     */
+    @State(Scope.Thread)
+    public static class Message {
+        String url = "https://the-internet.herokuapp.com/login";
+        long millis = 42;
+    }
+
+    /**
+     * A message at the level of the logger, passed as a supplier.
+     */
+    @Benchmark
+    public void infoSupplier(Message message) {
+        LOGGER.info(() -> "Opened " + message.url + " in " + message.millis + " ms");
+    }
+
+    /**
+     * A message at the level of the logger with parameters, which are formatted by the handler.
+     */
+    @Benchmark
+    public void infoParameters(Message message) {
+        LOGGER.log(Level.INFO, "Opened {0} in {1} ms", new Object[]{message.url, message.millis});
+    }
+
+    /**
+     * A message below the level of the logger, passed as a supplier.
+     */
+    @Benchmark
+    public void fineSupplier(Message message) {
+        LOGGER.fine(() -> "Opened " + message.url + " in " + message.millis + " ms");
+    }
+
+    /**
+     * A message below the level of the logger, built before the call.
+     */
+    @Benchmark
+    public void fineConcatenated(Message message) {
+        LOGGER.fine("Opened " + message.url + " in " + message.millis + " ms");
+    }
+}
@@ -0,0 +1,144 @@
+package Benchmarks;
+
+import Utils.Locator;
+import Utils.StubWebDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures the call chains of the page objects against the {@link StubWebDriver}.
+ * <p>
+ * Every benchmark thread has its own stub session of the login application, so the numbers show what the
+ * page objects, {@link Utils.Base}, the element cache and the action timings cost per step without a browser.
+ * Run with {@code scripts/run-benchmarks.sh}, which runs every benchmark single-threaded and multi-threaded.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Dlog.level=INFO", "-Dlog.console=false", "-Dlog.file=", "-Dperf.capture=false",
+        "-Dresults.file=target/jmh/test-results.jsonl"})
+public class PageObjectBenchmark {
+
+    private static final String USERNAME = "tomsmith";
+    private static final String PASSWORD = "SuperSecretPassword!";
+
+    /**
+     * The steps of the page objects which are measured.
+     * <p>
+     * The page objects are in the default package, which cannot be imported here, and JMH does not accept
+     * benchmarks in the default package. The steps are therefore implemented by {@code LoginFlows} in the default
+     * package of the benchmark sources, which is loaded once per session. Every call site only ever sees that one
+     * class, so the JIT inlines the interface calls.
+     * </p>
+     */
+    public interface Flows {
+
+        /**
+         * Fills in the login form field by field, submits it and reads the message of the secure page.
+         */
+        String login(String username, String password);
+
+        /**
+         * Submits the login form with the batched form interactions and reads the message of the secure page.
+         */
+        String submitCredentials(String username, String password);
+
+        /**
+         * Submits the login form and reads the error message of the login page.
+         */
+        String failedLogin(String username, String password);
+
+        /**
+         * Checks an element with the login page object created when the session was opened.
+         */
+        boolean verifyDisplayed(By locator);
+
+        /**
+         * Probes for an element with the login page object created when the session was opened.
+         */
+        boolean probePresent(By locator);
+    }
+
+    /**
+     * A stub session of the login application with the login page opened.
+     */
+    @State(Scope.Thread)
+    public static class Session {
+        StubWebDriver driver;
+        String loginUrl;
+        Flows flows;
+
+        @Setup(Level.Trial)
+        public void open() throws ReflectiveOperationException {
+            driver = StubWebDriver.loginApp();
+            loginUrl = driver.url("/login");
+            driver.get(loginUrl);
+            flows = Class.forName("LoginFlows").asSubclass(Flows.class).getConstructor(WebDriver.class).newInstance(driver);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            driver.quit();
+        }
+    }
+
+    /**
+     * The login flow of LoginTest, step by step: open the page, fill in the form, submit it and read the message.
+     */
+    @Benchmark
+    public String loginFlow(Session session) {
+        session.driver.get(session.loginUrl);
+        return session.flows.login(USERNAME, PASSWORD);
+    }
+
+    /**
+     * The login flow with the batched form interactions, which fall back to single commands on the stub.
+     */
+    @Benchmark
+    public String batchedLoginFlow(Session session) {
+        session.driver.get(session.loginUrl);
+        return session.flows.submitCredentials(USERNAME, PASSWORD);
+    }
+
+    /**
+     * A failed login, which reads the error message of the login page.
+     */
+    @Benchmark
+    public String failedLoginFlow(Session session) {
+        session.driver.get(session.loginUrl);
+        return session.flows.failedLogin(USERNAME, "wrong");
+    }
+
+    /**
+     * One step on an element which is already in the element cache of the page object.
+     */
+    @Benchmark
+    public boolean cachedElementStep(Session session) {
+        return session.flows.verifyDisplayed(Locator.usernameField);
+    }
+
+    /**
+     * A probe for an element which is not on the page, the check of a negative assertion.
+     */
+    @Benchmark
+    public void absentElementProbe(Session session, Blackhole blackhole) {
+        blackhole.consume(session.flows.probePresent(Locator.errorMessage));
+    }
+}
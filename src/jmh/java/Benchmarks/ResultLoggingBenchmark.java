@@ -0,0 +1,154 @@
+package Benchmarks;
+
+import Utils.TestResultLogger;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class measures what the {@link TestResultLogger} costs per test: the callbacks of a passed and of a failed
+ * test, with the timing kept in the extension store, the summaries and the line of the result stream.
+ * <p>
+ * The extension context is a minimal stand-in which answers the calls of the logger and keeps its store in a map,
+ * so the numbers do not include the JUnit engine. The result stream is written to {@code target/jmh}.
+ * </p>
+ * <p>
+ * The result stream buffers at most {@link Utils.JsonLinesWriter#DEFAULT_CAPACITY} lines, and callers wait when
+ * the buffer is full, so the throughput includes writing the lines and not only putting them into a buffer.
+ * The stream is closed after every iteration, which writes the rest of the buffer outside of the measurement,
+ * so no iteration starts with the backlog of the previous one.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Dlog.level=INFO", "-Dlog.console=false", "-Dlog.file=", "-Dperf.capture=false",
+        "-Dresults.file=target/jmh/test-results.jsonl", "-Dtiming.history=target/jmh/test-timings.properties"})
+public class ResultLoggingBenchmark {
+
+    private static final AssertionError FAILURE = new AssertionError("Error message is displayed.");
+
+    /**
+     * The logger and the test method the results are reported for.
+     */
+    @State(Scope.Benchmark)
+    public static class Results {
+        final TestResultLogger logger = new TestResultLogger();
+        final Method method;
+        final AtomicLong tests = new AtomicLong();
+
+        public Results() {
+            try {
+                method = ResultLoggingBenchmark.class.getMethod("passedTest", Results.class);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Writes the buffered lines and closes the result stream, which the next iteration opens again.
+         */
+        @TearDown(Level.Iteration)
+        public void drain() {
+            TestResultLogger.logRunSummary();
+        }
+    }
+
+    /**
+     * The callbacks of a passed test.
+     */
+    @Benchmark
+    public void passedTest(Results results) throws Exception {
+        ExtensionContext context = testContext(results);
+        results.logger.beforeEach(context);
+        results.logger.beforeTestExecution(context);
+        results.logger.afterTestExecution(context);
+        results.logger.testSuccessful(context);
+    }
+
+    /**
+     * The callbacks of a failed test.
+     */
+    @Benchmark
+    public void failedTest(Results results) throws Exception {
+        ExtensionContext context = testContext(results);
+        results.logger.beforeEach(context);
+        results.logger.beforeTestExecution(context);
+        results.logger.afterTestExecution(context);
+        results.logger.testFailed(context, FAILURE);
+    }
+
+    /**
+     * Creates the extension context of a new test, which answers the calls of the {@link TestResultLogger}.
+     */
+    private static ExtensionContext testContext(Results results) {
+        long test = results.tests.incrementAndGet();
+        Map<Object, Object> values = new HashMap<>();
+        ExtensionContext.Store store = (ExtensionContext.Store) Proxy.newProxyInstance(
+                ExtensionContext.class.getClassLoader(), new Class<?>[]{ExtensionContext.Store.class},
+                (proxy, call, args) -> {
+                    switch (call.getName()) {
+                        case "get":
+                            return values.get(args[0]);
+                        case "put":
+                            values.put(args[0], args[1]);
+                            return null;
+                        case "remove":
+                            return values.remove(args[0]);
+                        default:
+                            throw new UnsupportedOperationException(call.getName());
+                    }
+                });
+        Set<String> tags = Collections.singleton("login");
+        return (ExtensionContext) Proxy.newProxyInstance(ExtensionContext.class.getClassLoader(),
+                new Class<?>[]{ExtensionContext.class}, (proxy, call, args) -> {
+                    switch (call.getName()) {
+                        case "getStore":
+                            return store;
+                        case "getUniqueId":
+                            return "[engine:junit-jupiter]/[class:Benchmarks.ResultLoggingBenchmark]/[method:passedTest()]#" + test;
+                        case "getDisplayName":
+                            return "passedTest()";
+                        case "getTags":
+                            return tags;
+                        case "getTestClass":
+                            return Optional.of(ResultLoggingBenchmark.class);
+                        case "getRequiredTestClass":
+                            return ResultLoggingBenchmark.class;
+                        case "getTestMethod":
+                            return Optional.of(results.method);
+                        case "getRequiredTestMethod":
+                            return results.method;
+                        case "getParent":
+                        case "getExecutionException":
+                            return Optional.empty();
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException(call.getName());
+                    }
+                });
+    }
+}
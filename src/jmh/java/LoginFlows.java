@@ -0,0 +1,57 @@
+import Benchmarks.PageObjectBenchmark;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * The steps of the page objects which the {@link PageObjectBenchmark} measures.
+ * <p>
+ * This class is in the default package with the page objects, so the benchmark can call them through
+ * {@link PageObjectBenchmark.Flows}.
+ * </p>
+ */
+public class LoginFlows implements PageObjectBenchmark.Flows {
+
+    private final WebDriver driver;
+    private final LoginPage loginPage;
+
+    /**
+     * Constructs the steps for a session which has the login page opened.
+     *
+     * @param driver The session of the benchmark thread.
+     */
+    public LoginFlows(WebDriver driver) {
+        this.driver = driver;
+        this.loginPage = new LoginPage(driver);
+    }
+
+    @Override
+    public String login(String username, String password) {
+        SecurePage securePage = new LoginPage(driver)
+                .enterUsername(username)
+                .enterPassword(password)
+                .clickLoginButton();
+        return securePage.getSecurePageMessage();
+    }
+
+    @Override
+    public String submitCredentials(String username, String password) {
+        return new LoginPage(driver).submitCredentials(username, password).getSecurePageMessage();
+    }
+
+    @Override
+    public String failedLogin(String username, String password) {
+        LoginPage page = new LoginPage(driver);
+        page.submitCredentials(username, password);
+        return page.getErrorMessage();
+    }
+
+    @Override
+    public boolean verifyDisplayed(By locator) {
+        return loginPage.verifyDisplayed(locator);
+    }
+
+    @Override
+    public boolean probePresent(By locator) {
+        return loginPage.probePresent(locator);
+    }
+}
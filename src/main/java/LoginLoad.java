@@ -0,0 +1,59 @@
+import Utils.Browser;
+import Utils.Constants;
+import Utils.LoadRunner;
+import Utils.Locator;
+import Utils.LoggerUtil;
+import Utils.StandInServer;
+import Utils.WebDriverPool;
+
+/**
+ * This class runs the login flow of the page objects as a load test against the login endpoint.
+ * <p>
+ * Every virtual user of the {@link LoadRunner} opens the login page, submits valid credentials with the
+ * {@link LoginPage}, verifies the secure area with the {@link SecurePage} and logs out again, so the same
+ * page objects and assertions are used as in the functional tests.
+ * </p>
+ * <p>
+ * The run is configured with system properties: {@code -Dbrowser} selects the sessions ({@code http} for
+ * lightweight sessions), {@code -Dtarget=standin} runs against the embedded stand-in server and
+ * {@code -Dload.users}, {@code -Dload.rampup}, {@code -Dload.duration} and {@code -Dload.think} shape the load.
+ * The process exits with status 1 if more than {@link Constants#loadMaxErrorRate} of the iterations failed.
+ * </p>
+ *
+ * Example usage:
+ * <pre>{@code
+ * scripts/run-load.sh -Dbrowser=http -Dtarget=standin -Dload.users=200 -Dload.duration=30000
+ * }</pre>
+ */
+public final class LoginLoad {
+
+    private LoginLoad() {
+    }
+
+    /**
+     * This method runs the load test and writes its report to {@link Constants#loadReportFile}.
+     *
+     * @param args Not used, the run is configured with system properties.
+     * @throws InterruptedException If the run is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Browser browser = Browser.configured().get(0);
+        LoadRunner.Result result;
+        try {
+            result = LoadRunner.run("login", browser, (driver, steps) -> {
+                steps.step("open login page", () -> driver.get(Constants.baseURL));
+                LoginPage loginPage = new LoginPage(driver);
+                SecurePage securePage = steps.step("submit credentials",
+                        () -> loginPage.submitCredentials("tomsmith", "SuperSecretPassword!"));
+                steps.step("verify logged in", securePage::verifyUserLoggedIn);
+                steps.step("log out", () -> securePage.click(Locator.logoutButton));
+            });
+        } finally {
+            WebDriverPool.shutdownAll();
+            StandInServer.stop();
+        }
+        boolean passed = result.getErrorRate() <= Constants.loadMaxErrorRate;
+        LoggerUtil.shutdown();
+        System.exit(passed ? 0 : 1);
+    }
+}
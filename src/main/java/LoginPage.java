@@ -1,8 +1,14 @@
+import Utils.AuthSessionCache;
 import Utils.Base;
+import Utils.Constants;
+import Utils.Interaction;
 import io.qameta.allure.Step;
 import Utils.Locator;
+import Utils.PerformanceCapture;
 import org.openqa.selenium.WebDriver;
 
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -27,7 +33,11 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
  * @see <a href="https://www.selenium.dev/documentation/test_practices/encouraged/page_object_models/">Page Object models documentation</a>
  */
 public class LoginPage extends Base {
-    private WebDriver driver;
+
+    /**
+     * The name under which the timing of the login form submission is recorded.
+     */
+    public static final String LOGIN_NAVIGATION = "login";
 
     /**
      * This method is the constructor for the LoginPage class.
@@ -38,7 +48,7 @@ public class LoginPage extends Base {
      * @param driver The WebDriver instance used for browser automation.
      */
     public LoginPage(WebDriver driver) {
-        this.driver = driver;
+        super(driver);
     }
 
     /**
@@ -73,15 +83,72 @@ public class LoginPage extends Base {
      * This method is used to simulate a user clicking on a Login button element on a web page.
      * <p>
      * This method simulates clicking the login button to submit the login form.
+     * The timing of the resulting navigation is recorded as {@link #LOGIN_NAVIGATION} if it reached the secure area.
      * </p>
      * @return A new SecurePage object after clicking the login button.
      */
     @Step("Click login button")
     public SecurePage clickLoginButton() {
         click(Locator.loginButton);
+        captureLogin();
+        return new SecurePage(driver);
+    }
+
+    /**
+     * This method fills in both credentials and submits the login form in a single batched interaction.
+     * <p>
+     * It has the same effect as {@link #enterUsername(String)}, {@link #enterPassword(String)} and {@link #clickLoginButton()},
+     * but it is executed with one round trip to the driver instead of six.
+     * </p>
+     * @param username The username to be entered.
+     * @param password The password to be entered.
+     * @return A new SecurePage object after submitting the login form.
+     */
+    @Step("Submit credentials for: {username}")
+    public SecurePage submitCredentials(String username, String password) {
+        perform(Arrays.asList(
+                Interaction.type(Locator.usernameField, username),
+                Interaction.type(Locator.passwordField, password),
+                Interaction.click(Locator.loginButton)));
+        captureLogin();
         return new SecurePage(driver);
     }
 
+    /**
+     * This method records the timing of the login navigation as {@link #LOGIN_NAVIGATION}.
+     * <p>
+     * Only a login which reached the secure area is recorded, so a rejected login, which stays on the login page,
+     * does not count against the performance budget of the login.
+     * </p>
+     */
+    private void captureLogin() {
+        if (Constants.capturePerformance && driver.getCurrentUrl().startsWith(Constants.secureURL)) {
+            PerformanceCapture.capture(driver, LOGIN_NAVIGATION);
+        }
+    }
+
+    /**
+     * This method logs in with the given credentials, reusing the session of an earlier login whenever possible.
+     * <p>
+     * If the {@link AuthSessionCache} holds a valid session for the credentials, its cookies are injected
+     * and the secure area is opened directly. Otherwise the login form is filled in and submitted,
+     * and the resulting session is cached for later tests.
+     * The login page must already be opened.
+     * </p>
+     * @param username The username to log in with.
+     * @param password The password to log in with.
+     * @return A new SecurePage object for the logged in user.
+     */
+    @Step("Log in as: {username}")
+    public SecurePage loginAs(String username, String password) {
+        if (AuthSessionCache.restore(driver, username, password)) {
+            return new SecurePage(driver);
+        }
+        SecurePage securePage = submitCredentials(username, password);
+        AuthSessionCache.store(driver, username, password);
+        return securePage;
+    }
+
     /**
      * This method is used to retrieve the text content of the error message web element.
      * @return Error Message text
@@ -93,11 +160,13 @@ public class LoginPage extends Base {
     /**
      * Verifies that the login failed by checking if the error message contains either "Your username is invalid!" or "Your password is invalid!".
      * <p>
-     * This method asserts that the error message contains either of the specified texts.
+     * This method waits until the error message is displayed and asserts that it contains either of the specified texts.
      * If the assertion fails, it indicates that the login didn't fail.
      * </p>
      */
     public void verifyLoginFailed() {
-        assertTrue(getErrorMessage().contains("Your username is invalid!") || getErrorMessage().contains("Your password is invalid!"), "Invalid login.");
+        assertTrue(waitUntilVisible(Locator.errorMessage), "Error message is displayed.");
+        String errorMessage = getErrorMessage();
+        assertTrue(errorMessage.contains("Your username is invalid!") || errorMessage.contains("Your password is invalid!"), "Invalid login.");
     }
 }
@@ -2,6 +2,7 @@ import Utils.Base;
 import Utils.Locator;
 import org.openqa.selenium.WebDriver;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -21,7 +22,6 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
  * @see <a href="https://www.selenium.dev/documentation/test_practices/encouraged/page_object_models/">Page Object models documentation</a>
  */
 public class SecurePage extends Base {
-    private WebDriver driver;
 
     /**
      * This method is the constructor for the SecurePage class.
@@ -32,7 +32,7 @@ public class SecurePage extends Base {
      * @param driver The WebDriver instance used for browser automation.
      */
     public SecurePage(WebDriver driver) {
-        this.driver = driver;
+        super(driver);
     }
 
     /**
@@ -46,11 +46,32 @@ public class SecurePage extends Base {
     /**
      * Verifies that the user is logged in by checking if the secure page message contains the expected text.
      * <p>
-     * This method asserts that the secure page message contains the text "You logged into a secure area!".
+     * This method waits until the secure page message contains the text "You logged into a secure area!".
      * If the assertion fails, it indicates that the user is not logged in.
      * </p>
      */
     public void verifyUserLoggedIn() {
-        assertTrue(getSecurePageMessage().contains("You logged into a secure area!"), "User is logged in.");
+        assertTrue(waitForText(Locator.securePageMessage, "You logged into a secure area!"), "User is logged in.");
+    }
+
+    /**
+     * Verifies that the secure area is displayed by checking that the logout button is present.
+     * <p>
+     * Unlike {@link #verifyUserLoggedIn()} this check does not depend on the success message,
+     * which is only shown right after the login form has been submitted.
+     * </p>
+     */
+    public void verifySecureAreaDisplayed() {
+        assertTrue(verifyDisplayed(Locator.logoutButton), "Secure area is displayed.");
+    }
+
+    /**
+     * Verifies that no error message is shown on the secure page.
+     * <p>
+     * The check costs a single round trip to the driver and does not wait for the message to appear.
+     * </p>
+     */
+    public void verifyNoErrorMessage() {
+        assertFalse(probePresent(Locator.errorMessage), "No error message is displayed.");
     }
 }
@@ -0,0 +1,176 @@
+package Utils;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * The ActionTimings class records the latency of every driver action of the framework and of every Allure step.
+ * <p>
+ * Latencies are kept in one {@link LatencyHistogram} per action type and key, where the key is the locator of an
+ * element action, the URL of a navigation or the name of a step. Recording takes a map lookup and a few atomic
+ * increments, so it adds well below a microsecond to a driver command.
+ * </p>
+ * <p>
+ * The time each thread spends in driver actions is also summed up, without counting nested actions twice,
+ * so that the {@link TestResultLogger} can tell how much of a test was spent waiting for the browser.
+ * </p>
+ * <p>
+ * At the end of the run {@link #report()} logs a summary table and writes all histograms to
+ * {@link Constants#actionTimingsFile} as JSON.
+ * </p>
+ *
+ * Example usage:
+ * <pre>{@code
+ * long start = ActionTimings.start();
+ * driver.findElement(locator).click();
+ * ActionTimings.record(ActionTimings.Action.CLICK, locator, start);
+ * }</pre>
+ */
+public final class ActionTimings {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger();
+
+    /**
+     * Enum representing the timed action types.
+     */
+    public enum Action {
+        OPEN, CLICK, TYPE, GET_TEXT, VERIFY_DISPLAYED, PROBE, WAIT, BATCH, STEP
+    }
+
+    private static final Map<Action, Map<Object, LatencyHistogram>> histograms = new EnumMap<>(Action.class);
+
+    static {
+        for (Action action : Action.values()) {
+            histograms.put(action, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Per thread: the number of actions currently running and the total nanoseconds spent in outermost actions.
+     */
+    private static final ThreadLocal<long[]> threadState = ThreadLocal.withInitial(() -> new long[2]);
+
+    private ActionTimings() {
+    }
+
+    /**
+     * Marks the start of a driver action on the current thread.
+     *
+     * @return The value of {@link System#nanoTime()} to pass to {@link #record(Action, Object, long)}.
+     */
+    public static long start() {
+        threadState.get()[0]++;
+        return System.nanoTime();
+    }
+
+    /**
+     * Method which returns the total time the current thread has spent in driver actions.
+     *
+     * @return The driver time in nanoseconds.
+     */
+    public static long threadDriverNanos() {
+        return threadState.get()[1];
+    }
+
+    /**
+     * Records the latency of an action which started at the given time.
+     * Driver actions must have been started with {@link #start()}, steps only need the start time.
+     *
+     * @param action     The action type.
+     * @param key        The locator, URL or step name the action was applied to.
+     * @param startNanos The value of {@link System#nanoTime()} when the action started.
+     */
+    public static void record(Action action, Object key, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        if (action != Action.STEP) {
+            long[] state = threadState.get();
+            if (--state[0] <= 0) {
+                state[0] = 0;
+                state[1] += elapsed;
+            }
+        }
+        Map<Object, LatencyHistogram> byKey = histograms.get(action);
+        LatencyHistogram histogram = byKey.get(key);
+        if (histogram == null) {
+            histogram = byKey.computeIfAbsent(key, newKey -> new LatencyHistogram());
+        }
+        histogram.record(elapsed);
+    }
+
+    /**
+     * Method which returns the histogram of an action type merged over all keys.
+     *
+     * @param action The action type.
+     * @return A new histogram holding all samples of the action type.
+     */
+    public static LatencyHistogram total(Action action) {
+        LatencyHistogram total = new LatencyHistogram();
+        for (LatencyHistogram histogram : histograms.get(action).values()) {
+            total.merge(histogram);
+        }
+        return total;
+    }
+
+    /**
+     * Logs the summary table of all recorded actions and writes the histograms to {@link Constants#actionTimingsFile}.
+     */
+    public static void report() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        StringBuilder table = new StringBuilder("Action timings (ms):\n");
+        table.append(String.format("%-16s %-50s %8s %9s %9s %9s %9s%n", "action", "key", "count", "mean", "p50", "p95", "max"));
+        for (Map.Entry<Action, Map<Object, LatencyHistogram>> byAction : histograms.entrySet()) {
+            for (Map.Entry<Object, LatencyHistogram> entry : byAction.getValue().entrySet()) {
+                LatencyHistogram histogram = entry.getValue();
+                String key = String.valueOf(entry.getKey());
+                table.append(String.format("%-16s %-50s %8d %9.3f %9.3f %9.3f %9.3f%n", byAction.getKey(),
+                        key.length() > 50 ? key.substring(0, 47) + "..." : key, histogram.getCount(),
+                        millis(histogram.getMean()), millis(histogram.getPercentile(50)),
+                        millis(histogram.getPercentile(95)), millis(histogram.getMax())));
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("action", byAction.getKey().name());
+                row.put("key", key);
+                row.put("count", histogram.getCount());
+                row.put("meanNanos", histogram.getMean());
+                row.put("p50Nanos", histogram.getPercentile(50));
+                row.put("p90Nanos", histogram.getPercentile(90));
+                row.put("p95Nanos", histogram.getPercentile(95));
+                row.put("p99Nanos", histogram.getPercentile(99));
+                row.put("maxNanos", histogram.getMax());
+                rows.add(row);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        LOGGER.info(table.toString());
+        Path file = Paths.get(Constants.actionTimingsFile);
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write(new Json().toJson(rows));
+            }
+        } catch (IOException e) {
+            LOGGER.warning(() -> "Unable to write action timings to " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,185 @@
+package Utils;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * The AsyncLogHandler class is a java.util.logging handler which hands log records over to a background thread.
+ * <p>
+ * Logging threads only put the record into a bounded buffer and return. The background thread takes the records
+ * out in batches, formats them and writes every batch with a single write to the console and to the delegate
+ * handlers, e.g. a rolling {@link java.util.logging.FileHandler}. Messages with parameters are therefore
+ * formatted on the background thread, not on the logging thread.
+ * </p>
+ * <p>
+ * When the buffer is full, records below {@link Level#WARNING} are dropped, and warnings and errors wait for
+ * a short time for free space before they are dropped too. The number of dropped and delayed records is reported
+ * when the handler is closed.
+ * </p>
+ */
+public class AsyncLogHandler extends Handler {
+
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * How long warnings and errors wait for free space in a full buffer.
+     */
+    private static final long BACKPRESSURE_MILLIS = 50;
+
+    private final BlockingQueue<LogRecord> buffer;
+    private final List<Handler> delegates;
+    private final PrintStream console;
+    private final Thread writer;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder delayed = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new handler and starts its background thread.
+     *
+     * @param capacity  The number of records the buffer can hold.
+     * @param console   The stream the formatted records are printed to, or null to print nothing.
+     * @param delegates Further handlers which receive every record on the background thread.
+     */
+    public AsyncLogHandler(int capacity, PrintStream console, List<Handler> delegates) {
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.console = console;
+        this.delegates = delegates;
+        setFormatter(new SimpleFormatter());
+        this.writer = new Thread(this::drain, "async-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Puts a record into the buffer without waiting for it to be written.
+     *
+     * @param record The log record.
+     */
+    @Override
+    public void publish(LogRecord record) {
+        if (!isLoggable(record)) {
+            return;
+        }
+        if (closed) {
+            // late records, e.g. from shutdown hooks, are printed directly
+            if (console != null) {
+                console.print(getFormatter().format(record));
+            }
+            return;
+        }
+        // the source class is inferred from the stack, which is only possible on the logging thread
+        record.getSourceClassName();
+        if (buffer.offer(record)) {
+            return;
+        }
+        if (record.getLevel().intValue() >= Level.WARNING.intValue()) {
+            delayed.increment();
+            try {
+                if (buffer.offer(record, BACKPRESSURE_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        dropped.increment();
+    }
+
+    /**
+     * Takes records out of the buffer in batches and writes them until the handler is closed.
+     */
+    private void drain() {
+        List<LogRecord> batch = new ArrayList<>(BATCH_SIZE);
+        while (!closed || !buffer.isEmpty()) {
+            try {
+                LogRecord first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, BATCH_SIZE - 1);
+                write(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // closing, write what is left
+                closed = true;
+            }
+        }
+    }
+
+    private void write(List<LogRecord> batch) {
+        Formatter formatter = getFormatter();
+        if (console != null) {
+            StringBuilder text = new StringBuilder();
+            for (LogRecord record : batch) {
+                text.append(formatter.format(record));
+            }
+            console.print(text);
+            console.flush();
+        }
+        for (Handler delegate : delegates) {
+            for (LogRecord record : batch) {
+                delegate.publish(record);
+            }
+            delegate.flush();
+        }
+    }
+
+    /**
+     * Method which returns the number of records dropped because the buffer was full.
+     *
+     * @return The dropped record count.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Method which returns the number of warnings and errors which had to wait for free space in the buffer.
+     *
+     * @return The delayed record count.
+     */
+    public long getDelayedCount() {
+        return delayed.sum();
+    }
+
+    /**
+     * The buffer is written continuously by the background thread, there is nothing to flush on the calling thread.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Writes all buffered records, closes the delegate handlers and reports dropped and delayed records.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Handler delegate : delegates) {
+            delegate.close();
+        }
+        if (console != null && (dropped.sum() > 0 || delayed.sum() > 0)) {
+            console.println("Async logging: dropped " + dropped.sum() + " records, delayed " + delayed.sum() + " records.");
+        }
+    }
+}
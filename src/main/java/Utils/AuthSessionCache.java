@@ -0,0 +1,169 @@
+package Utils;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * The AuthSessionCache class keeps the session cookies of logged in users, keyed by their credentials.
+ * <p>
+ * After a user has logged in once through the login form, the captured cookies can be injected into
+ * any other browser session, which then opens the secure area directly without going through the UI login.
+ * Entries expire after {@link Constants#authSessionTtlSeconds} or when one of their cookies expires, and
+ * an entry is dropped as soon as the server rejects its cookies by redirecting away from the secure area.
+ * </p>
+ * <p>
+ * Entries are kept per browser and per {@link Constants#baseURL}, so the cookies of one browser or target
+ * are never injected into a session of another.
+ * </p>
+ *
+ * Example usage:
+ * <pre>{@code
+ * if (!AuthSessionCache.restore(driver, username, password)) {
+ *     // log in through the login form
+ *     AuthSessionCache.store(driver, username, password);
+ * }
+ * }</pre>
+ */
+public final class AuthSessionCache {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger();
+
+    private static final Map<String, Entry> SESSIONS = new ConcurrentHashMap<>();
+
+    private AuthSessionCache() {
+    }
+
+    /**
+     * Cookies of one logged in user and the time they stop being reused.
+     */
+    private static final class Entry {
+        private final Set<Cookie> cookies;
+        private final long expiresAt;
+
+        private Entry(Set<Cookie> cookies, long expiresAt) {
+            this.cookies = cookies;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            long now = System.currentTimeMillis();
+            if (now >= expiresAt) {
+                return true;
+            }
+            for (Cookie cookie : cookies) {
+                Date expiry = cookie.getExpiry();
+                if (expiry != null && expiry.getTime() <= now) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Captures the cookies of a session which has just logged in and stores them for the given credentials.
+     * <p>
+     * Nothing is stored if the browser is not on the secure area, i.e. if the login failed.
+     * </p>
+     *
+     * @param driver   The WebDriver which has logged in.
+     * @param username The username used for the login.
+     * @param password The password used for the login.
+     */
+    public static void store(WebDriver driver, String username, String password) {
+        if (!driver.getCurrentUrl().startsWith(Constants.secureURL)) {
+            return;
+        }
+        Set<Cookie> cookies = new HashSet<>(driver.manage().getCookies());
+        long expiresAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(Constants.authSessionTtlSeconds);
+        SESSIONS.put(key(driver, username, password), new Entry(cookies, expiresAt));
+        LOGGER.info(() -> "Cached authenticated session for user: " + username);
+    }
+
+    /**
+     * Injects the cached cookies for the given credentials and opens the secure area.
+     * <p>
+     * The browser must already show a page of the application, since cookies can only be added for the
+     * domain of the current page. If the server does not accept the cookies, the entry is invalidated.
+     * </p>
+     *
+     * @param driver   The WebDriver which should be logged in.
+     * @param username The username of the cached session.
+     * @param password The password of the cached session.
+     * @return true if the browser shows the secure area, false if the caller has to log in through the UI.
+     */
+    public static boolean restore(WebDriver driver, String username, String password) {
+        String key = key(driver, username, password);
+        Entry entry = SESSIONS.get(key);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.isExpired()) {
+            SESSIONS.remove(key, entry);
+            return false;
+        }
+        try {
+            for (Cookie cookie : entry.cookies) {
+                driver.manage().addCookie(cookie);
+            }
+            driver.get(Constants.secureURL);
+            ElementCache.navigated(driver);
+        } catch (WebDriverException e) {
+            LOGGER.warning(() -> "Unable to restore cached session for user: " + username + " with cause: " + e.getMessage());
+            SESSIONS.remove(key, entry);
+            return false;
+        }
+        if (!driver.getCurrentUrl().startsWith(Constants.secureURL)) {
+            LOGGER.info(() -> "Cached session rejected by the server for user: " + username);
+            SESSIONS.remove(key, entry);
+            driver.manage().deleteAllCookies();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes the cached session of the given credentials for the browser of the given session.
+     *
+     * @param driver   The WebDriver whose browser the session was cached for.
+     * @param username The username of the cached session.
+     * @param password The password of the cached session.
+     */
+    public static void invalidate(WebDriver driver, String username, String password) {
+        SESSIONS.remove(key(driver, username, password));
+    }
+
+    /**
+     * Builds the cache key from the browser, the target and the credentials, without keeping the password in
+     * clear text.
+     */
+    private static String key(WebDriver driver, String username, String password) {
+        String browser = driver instanceof HasCapabilities
+                ? ((HasCapabilities) driver).getCapabilities().getBrowserName() : driver.getClass().getName();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder(browser).append(' ').append(Constants.baseURL).append(' ')
+                    .append(username).append(':');
+            for (byte b : hash) {
+                key.append(String.format("%02x", b));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+}
@@ -1,23 +1,94 @@
 package Utils;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
-import static Utils.WebDriverHandler.driver;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Base class provides basic methods for interacting with web elements using Selenium WebDriver.
  * It includes methods for clicking buttons, typing text into input fields, and retrieving text from elements.
+ * Every page object works with the WebDriver it was constructed with, which is the session leased by the current test.
+ * Elements are looked up once per page object and kept in an {@link ElementCache} until the driver navigates
+ * or the element goes stale. The latency of every action is recorded in {@link ActionTimings}.
  */
 public class Base {
 
+    /**
+     * Script which executes a batch of steps inside the page.
+     * Every step is described by a map with the keys {@code using}, {@code selector}, {@code action} and {@code value}.
+     * Typing appends to the current value like {@code sendKeys} and dispatches the {@code input} and {@code change} events.
+     * The script returns the results of all steps, or the index of the first step whose element could not be found.
+     */
+    private static final String BATCH_SCRIPT =
+            "var steps = arguments[0], results = [];"
+            + "function find(step) {"
+            + "  if (step.using === 'xpath') {"
+            + "    return document.evaluate(step.selector, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+            + "  }"
+            + "  return document.querySelector(step.selector);"
+            + "}"
+            + "for (var i = 0; i < steps.length; i++) {"
+            + "  var step = steps[i], el = find(step);"
+            + "  if (!el) { return {failed: i, results: results}; }"
+            + "  if (step.action === 'TYPE') {"
+            + "    el.focus();"
+            + "    var proto = Object.getPrototypeOf(el), desc = Object.getOwnPropertyDescriptor(proto, 'value');"
+            + "    if (desc && desc.set) { desc.set.call(el, el.value + step.value); } else { el.value += step.value; }"
+            + "    el.dispatchEvent(new Event('input', {bubbles: true}));"
+            + "    el.dispatchEvent(new Event('change', {bubbles: true}));"
+            + "    results.push(null);"
+            + "  } else if (step.action === 'CLICK') {"
+            + "    el.click();"
+            + "    results.push(null);"
+            + "  } else {"
+            + "    results.push(el.innerText);"
+            + "  }"
+            + "}"
+            + "return {failed: -1, results: results};";
+
+    /**
+     * The WebDriver instance used by this page object.
+     */
+    protected final WebDriver driver;
+
+    /**
+     * The elements found by this page object.
+     */
+    private final ElementCache elements;
+
+    /**
+     * Constructs a new page object working with the specified WebDriver instance.
+     *
+     * @param driver The WebDriver instance used for browser automation.
+     */
+    public Base(WebDriver driver) {
+        this.driver = driver;
+        this.elements = new ElementCache(driver);
+    }
+
     /**
      * Clicks on a web element identified by the provided locator.
      *
      * @param button The locator (By object) of the button to be clicked.
      */
     public void click(By button){
-        driver.findElement(button).click();
+        timed(ActionTimings.Action.CLICK, button, () -> withElement(button, element -> {
+            element.click();
+            return null;
+        }));
     }
 
     /**
@@ -27,7 +98,10 @@ public class Base {
      * @param fieldName The locator (By object) of the input field.
      */
     public void type(String value, By fieldName){
-        driver.findElement(fieldName).sendKeys(value);
+        timed(ActionTimings.Action.TYPE, fieldName, () -> withElement(fieldName, element -> {
+            element.sendKeys(value);
+            return null;
+        }));
     }
 
     /**
@@ -37,22 +111,235 @@ public class Base {
      * @return The text content of the specified element.
      */
     public String getText(By textField){
-        return driver.findElement(textField).getText();
+        return timed(ActionTimings.Action.GET_TEXT, textField, () -> withElement(textField, WebElement::getText));
     }
 
     /**
      * This method is used for verification purposes.
-     * It checks if the specified element is present on the page.
+     * It checks if the specified element is present on the page and displayed.
      *
      * @param locator the By locator of the element to verify
      * @return true if the element is present, false otherwise
      */
     public boolean verifyDisplayed(By locator) {
+        return timed(ActionTimings.Action.VERIFY_DISPLAYED, locator, () -> probeDisplayed(locator));
+    }
+
+    /**
+     * Checks if at least one element matches the provided locator.
+     * <p>
+     * The probe methods look elements up with {@code findElements}, which returns an empty list instead of throwing
+     * {@link NoSuchElementException}, and without the implicit wait, so an absent element costs a single round trip.
+     * </p>
+     *
+     * @param locator The locator (By object) of the element.
+     * @return true if the element is present, false otherwise.
+     */
+    public boolean probePresent(By locator) {
+        return !findNow(locator).isEmpty();
+    }
+
+    /**
+     * Checks if the first element matching the provided locator is displayed.
+     *
+     * @param locator The locator (By object) of the element.
+     * @return true if the element is present and displayed, false otherwise.
+     */
+    public boolean probeDisplayed(By locator) {
+        List<WebElement> found = findNow(locator);
         try {
-            WebElement element = driver.findElement(locator);
-            return element.isDisplayed(); // Check if the element is displayed
-        } catch (org.openqa.selenium.NoSuchElementException e) {
-            return false; // Element not found, verification failed
+            return !found.isEmpty() && found.get(0).isDisplayed();
+        } catch (StaleElementReferenceException e) {
+            return false; // the element was removed right after it was found
+        }
+    }
+
+    /**
+     * Counts the elements matching the provided locator.
+     *
+     * @param locator The locator (By object) of the elements.
+     * @return The number of matching elements.
+     */
+    public int probeCount(By locator) {
+        return findNow(locator).size();
+    }
+
+    /**
+     * Retrieves the text content of the first element matching the provided locator, if there is one.
+     *
+     * @param locator The locator (By object) of the element.
+     * @return The text content, or an empty Optional if the element is not present.
+     */
+    public Optional<String> probeText(By locator) {
+        List<WebElement> found = findNow(locator);
+        try {
+            return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0).getText());
+        } catch (StaleElementReferenceException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Finds all elements matching the locator without waiting for them to appear.
+     * The implicit wait is only switched off and on again when one is configured with {@link Constants#implicitWaitMillis}.
+     */
+    private List<WebElement> findNow(By locator) {
+        return timed(ActionTimings.Action.PROBE, locator, () -> {
+            if (Constants.implicitWaitMillis <= 0) {
+                return driver.findElements(locator);
+            }
+            WebDriver.Timeouts timeouts = driver.manage().timeouts();
+            timeouts.implicitlyWait(Duration.ZERO);
+            try {
+                return driver.findElements(locator);
+            } finally {
+                timeouts.implicitlyWait(Duration.ofMillis(Constants.implicitWaitMillis));
+            }
+        });
+    }
+
+    /**
+     * Waits until the element identified by the provided locator is displayed.
+     * The wait returns as soon as the page changes, see {@link DomWait}.
+     *
+     * @param locator The locator (By object) of the element.
+     * @return true if the element is displayed within {@link Constants#waitTimeoutMillis}, false otherwise.
+     */
+    public boolean waitUntilVisible(By locator) {
+        return timed(ActionTimings.Action.WAIT, locator,
+                () -> DomWait.until(driver, locator, DomWait.Condition.VISIBLE, null, Constants.waitTimeoutMillis));
+    }
+
+    /**
+     * Waits until the element identified by the provided locator is displayed and contains the expected text.
+     * The wait returns as soon as the page changes, see {@link DomWait}.
+     *
+     * @param locator The locator (By object) of the element.
+     * @param text    The text the element must contain.
+     * @return true if the element contains the text within {@link Constants#waitTimeoutMillis}, false otherwise.
+     */
+    public boolean waitForText(By locator, String text) {
+        return timed(ActionTimings.Action.WAIT, locator,
+                () -> DomWait.until(driver, locator, DomWait.Condition.TEXT_CONTAINS, text, Constants.waitTimeoutMillis));
+    }
+
+    /**
+     * Runs an element action, records its latency in {@link ActionTimings} and emits a
+     * {@link FlightEvents.ElementAction} event when Flight Recorder is recording.
+     *
+     * @param action  The action type.
+     * @param locator The locator of the element the action is applied to.
+     * @param body    The action itself.
+     * @return The result of the action.
+     */
+    protected <T> T timed(ActionTimings.Action action, By locator, Supplier<T> body) {
+        FlightEvents.ElementAction event = new FlightEvents.ElementAction();
+        event.begin();
+        long start = ActionTimings.start();
+        try {
+            return body.get();
+        } finally {
+            ActionTimings.record(action, locator, start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.action = action.name();
+                event.locator = locator.toString();
+                event.url = FlightEvents.currentUrl();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Applies an action to the cached element of a locator.
+     * If the cached element has gone stale, it is looked up again and the action is retried once.
+     *
+     * @param locator The locator of the element.
+     * @param action  The action to apply.
+     * @return The result of the action.
+     */
+    protected <T> T withElement(By locator, Function<WebElement, T> action) {
+        try {
+            return action.apply(elements.find(locator));
+        } catch (StaleElementReferenceException e) {
+            elements.evict(locator);
+            return action.apply(elements.find(locator));
+        }
+    }
+
+    /**
+     * Executes a sequence of form interactions with as few round trips to the driver as possible.
+     * <p>
+     * Consecutive steps are executed inside the page with a single {@link JavascriptExecutor} call.
+     * Steps marked with {@link Interaction#withNativeEvents()}, steps whose locator cannot be evaluated by a script
+     * and all steps on drivers which cannot execute scripts fall back to the regular per-command methods of this class.
+     * A click which submits a form should be the last step, since the following steps would run on the page being unloaded.
+     * </p>
+     *
+     * @param steps The steps to execute in order.
+     * @return The result of every step: the text for {@link Interaction.Action#GET_TEXT} steps, null for the others.
+     * @throws NoSuchElementException If the element of a step cannot be found.
+     */
+    public List<String> perform(List<Interaction> steps) {
+        List<String> results = new ArrayList<>(steps.size());
+        List<Interaction> batch = new ArrayList<>();
+        for (Interaction step : steps) {
+            if (step.isNativeEvents() || !(driver instanceof JavascriptExecutor) || Selectors.toSelector(step.getLocator()) == null) {
+                results.addAll(performBatch(batch));
+                batch.clear();
+                results.add(performNative(step));
+            } else {
+                batch.add(step);
+            }
+        }
+        results.addAll(performBatch(batch));
+        return results;
+    }
+
+    /**
+     * Executes the steps inside the page with one script call.
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> performBatch(List<Interaction> batch) {
+        if (batch.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Map<String, Object>> arguments = new ArrayList<>(batch.size());
+        for (Interaction step : batch) {
+            String[] selector = Selectors.toSelector(step.getLocator());
+            Map<String, Object> argument = new HashMap<>();
+            argument.put("using", selector[0]);
+            argument.put("selector", selector[1]);
+            argument.put("action", step.getAction().name());
+            argument.put("value", step.getValue());
+            arguments.add(argument);
+        }
+        Map<String, Object> response = timed(ActionTimings.Action.BATCH, batch.get(0).getLocator(),
+                () -> (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(BATCH_SCRIPT, arguments));
+        int failed = ((Number) response.get("failed")).intValue();
+        if (failed >= 0) {
+            throw new NoSuchElementException("Unable to locate element for step: " + batch.get(failed));
+        }
+        List<String> results = new ArrayList<>(batch.size());
+        for (Object result : (List<Object>) response.get("results")) {
+            results.add(result == null ? null : result.toString());
+        }
+        return results;
+    }
+
+    /**
+     * Executes a single step with regular WebDriver commands.
+     */
+    private String performNative(Interaction step) {
+        switch (step.getAction()) {
+            case TYPE:
+                type(step.getValue(), step.getLocator());
+                return null;
+            case CLICK:
+                click(step.getLocator());
+                return null;
+            default:
+                return getText(step.getLocator());
         }
     }
 }
@@ -0,0 +1,78 @@
+package Utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The Browser enum lists the browsers the tests can run against.
+ * <p>
+ * The browsers of a run are set with {@code -Dbrowser}, e.g. {@code -Dbrowser=firefox} or
+ * {@code -Dbrowser=chrome,firefox}. With {@code -Dbrowser=http} the tests run without a browser,
+ * see {@link HttpSessionDriver}. When several browsers are configured, every test class is run once per browser
+ * at the same time, see {@link BrowserTest}. Every browser has its own {@link WebDriverPool}.
+ * </p>
+ */
+public enum Browser {
+    CHROME,
+    FIREFOX,
+    /**
+     * No browser: pages are loaded and queried on the protocol level by the {@link HttpSessionDriver}.
+     */
+    HTTP;
+
+    private static final List<Browser> CONFIGURED = parse(Constants.browsers);
+
+    /**
+     * Method which returns the name of the browser as it is used in {@code -Dbrowser} and in reports.
+     *
+     * @return The lower case name of the browser.
+     */
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Method which returns the browser with the given name.
+     *
+     * @param name The name of the browser, case-insensitive.
+     * @return The browser.
+     * @throws IllegalArgumentException If the browser is not supported.
+     */
+    public static Browser fromName(String name) {
+        for (Browser browser : values()) {
+            if (browser.name().equalsIgnoreCase(name.trim())) {
+                return browser;
+            }
+        }
+        List<String> supported = new ArrayList<>();
+        for (Browser browser : values()) {
+            supported.add(browser.getName());
+        }
+        throw new IllegalArgumentException("Unsupported browser '" + name + "', supported browsers are " + supported);
+    }
+
+    /**
+     * Method which returns the browsers of the run, in the order they were configured.
+     *
+     * @return The configured browsers, Chrome if none is configured.
+     */
+    public static List<Browser> configured() {
+        return CONFIGURED;
+    }
+
+    private static List<Browser> parse(List<String> names) {
+        List<Browser> browsers = new ArrayList<>();
+        for (String name : names) {
+            Browser browser = fromName(name);
+            if (!browsers.contains(browser)) {
+                browsers.add(browser);
+            }
+        }
+        if (browsers.isEmpty()) {
+            browsers.add(CHROME);
+        }
+        return Collections.unmodifiableList(browsers);
+    }
+}
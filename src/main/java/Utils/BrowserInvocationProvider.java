@@ -0,0 +1,107 @@
+package Utils;
+
+import org.junit.jupiter.api.extension.ClassTemplateInvocationContext;
+import org.junit.jupiter.api.extension.ClassTemplateInvocationContextProvider;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The BrowserInvocationProvider class is the JUnit 5 extension behind {@link BrowserTest}.
+ * <p>
+ * It provides one run of the test class for every configured browser and keeps the browser of the run in the
+ * extension store, where {@link #findBrowser(ExtensionContext)} looks it up for the class and all of its tests.
+ * A {@link BrowserTest#partitioned() partitioned} class gets one run per browser and data partition, and the
+ * partition of the run is looked up with {@link #partitionOf(ExtensionContext)}.
+ * </p>
+ */
+public class BrowserInvocationProvider implements ClassTemplateInvocationContextProvider {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(BrowserInvocationProvider.class);
+    private static final String PARTITION = "partition";
+
+    /**
+     * Every class annotated with {@link BrowserTest} is run per browser.
+     *
+     * @param context The extension context of the test class.
+     * @return Always true.
+     */
+    @Override
+    public boolean supportsClassTemplate(ExtensionContext context) {
+        return true;
+    }
+
+    /**
+     * Provides one run of the test class per configured browser, or per browser and data partition.
+     *
+     * @param context The extension context of the test class.
+     * @return The runs of the test class.
+     */
+    @Override
+    public Stream<ClassTemplateInvocationContext> provideClassTemplateInvocationContexts(ExtensionContext context) {
+        BrowserTest browserTest = context.getRequiredTestClass().getAnnotation(BrowserTest.class);
+        int partitions = browserTest != null && browserTest.partitioned() ? Constants.dataPartitions : 1;
+        return Browser.configured().stream().flatMap(browser -> IntStream.range(0, partitions)
+                .mapToObj(partition -> new BrowserInvocation(browser, partition, partitions)));
+    }
+
+    /**
+     * Method which returns the browser of the run a test or test class belongs to.
+     *
+     * @param context The extension context of the test or test class.
+     * @return The browser, or empty if the class is not run per browser.
+     */
+    public static Optional<Browser> findBrowser(ExtensionContext context) {
+        return Optional.ofNullable(context.getStore(NAMESPACE).get(Browser.class, Browser.class));
+    }
+
+    /**
+     * Method which returns the browser a test or test class runs against.
+     *
+     * @param context The extension context of the test or test class.
+     * @return The browser of the run, or the first configured browser if the class is not run per browser.
+     */
+    public static Browser browserOf(ExtensionContext context) {
+        return findBrowser(context).orElse(Browser.configured().get(0));
+    }
+
+    /**
+     * Method which returns the data partition of the run a test or test class belongs to.
+     *
+     * @param context The extension context of the test or test class.
+     * @return The index and the count of the partitions, {@code {0, 1}} if the class is not partitioned.
+     */
+    public static int[] partitionOf(ExtensionContext context) {
+        int[] partition = context.getStore(NAMESPACE).get(PARTITION, int[].class);
+        return partition == null ? new int[]{0, 1} : partition.clone();
+    }
+
+    /**
+     * The run of a test class against one browser, reading one partition of its data files.
+     */
+    private static final class BrowserInvocation implements ClassTemplateInvocationContext {
+        private final Browser browser;
+        private final int partition;
+        private final int partitions;
+
+        private BrowserInvocation(Browser browser, int partition, int partitions) {
+            this.browser = browser;
+            this.partition = partition;
+            this.partitions = partitions;
+        }
+
+        @Override
+        public String getDisplayName(int invocationIndex) {
+            return partitions == 1 ? "[" + browser.getName() + "]"
+                    : "[" + browser.getName() + " " + (partition + 1) + "/" + partitions + "]";
+        }
+
+        @Override
+        public void prepareInvocation(ExtensionContext context) {
+            context.getStore(NAMESPACE).put(Browser.class, browser);
+            context.getStore(NAMESPACE).put(PARTITION, new int[]{partition, partitions});
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package Utils;
+
+import org.junit.jupiter.api.ClassTemplate;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The BrowserTest annotation runs a test class once for every browser of {@link Browser#configured()}.
+ * <p>
+ * The runs of the different browsers are executed at the same time, each one with a session leased from the pool
+ * of its browser by the {@link DriverSessionExtension}. The runs are reported as {@code [chrome]}, {@code [firefox]},
+ * etc. below the test class.
+ * </p>
+ * <p>
+ * The runs are concurrent, so the test methods of an annotated class must be marked with
+ * {@code @Execution(ExecutionMode.SAME_THREAD)} to keep running one after another, in the order of the class.
+ * The {@link DriverSessionExtension} fails the class before its first test if a test method is not marked.
+ * </p>
+ * <p>
+ * A class with data-driven tests can be {@link #partitioned()}: it is then run {@link Constants#dataPartitions}
+ * times per browser, and every run reads its own share of the rows of the {@link DataFile}.
+ * </p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@ClassTemplate
+@Execution(ExecutionMode.CONCURRENT)
+@ExtendWith(BrowserInvocationProvider.class)
+public @interface BrowserTest {
+
+    /**
+     * Whether the class is run once per data partition and browser, reported as {@code [chrome 1/4]}, etc.
+     *
+     * @return true to split the rows of the data files of the class across {@link Constants#dataPartitions} sessions.
+     */
+    boolean partitioned() default false;
+}
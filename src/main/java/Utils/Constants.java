@@ -1,13 +1,281 @@
 package Utils;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * The Constants class contains static constant values
  * These constants typically represent fixed values such as URLs, file paths, or other configuration settings.
  * By centralizing these values in a separate class, it promotes code organization and makes it easier to manage and update them.
  */
 public class Constants {
+    /**
+     * The browsers the tests run against, set with {@code -Dbrowser}, e.g. {@code -Dbrowser=chrome,firefox}.
+     * Defaults to Chrome.
+     */
+    public static final List<String> browsers = listProperty("browser");
+
+    /**
+     * The maximum number of browser sessions of one browser alive at the same time, set with {@code -Dpool.size}.
+     * Defaults to the number of available processors.
+     */
+    public static final int poolSize = Integer.getInteger("pool.size", Runtime.getRuntime().availableProcessors());
+
+    /**
+     * The number of browser sessions launched in the background when the test run starts, set with {@code -Dwarm.sessions}.
+     * Warm start is disabled when the value is 0, which is the default.
+     */
+    public static final int warmSessions = Integer.getInteger("warm.sessions", 0);
+
+    /**
+     * Whether browser sessions are reset and reused by the next test class instead of being quit, set with {@code -Dsession.recycle}.
+     */
+    public static final boolean recycleSessions = Boolean.getBoolean("session.recycle");
+
+    /**
+     * How long in seconds the cookies of a logged in user are reused by other tests, set with {@code -Dauth.session.ttl}.
+     */
+    public static final long authSessionTtlSeconds = Long.getLong("auth.session.ttl", 300);
+
+    /**
+     * How long in milliseconds page objects wait for an element to reach the expected state, set with {@code -Dwait.timeout}.
+     */
+    public static final long waitTimeoutMillis = Long.getLong("wait.timeout", 10000);
+
+    /**
+     * The implicit wait in milliseconds configured for every browser session, set with {@code -Dimplicit.wait}.
+     * Defaults to 0, i.e. no implicit wait.
+     */
+    public static final long implicitWaitMillis = Long.getLong("implicit.wait", 0);
+
+    /**
+     * The page load strategy of the browser sessions (normal, eager or none), set with {@code -DpageLoadStrategy}.
+     */
+    public static final String pageLoadStrategy = System.getProperty("pageLoadStrategy", "normal");
+
+    /**
+     * The resource types which are not loaded by the browser, e.g. {@code image,font,stylesheet,media}, set with {@code -Dnetwork.block}.
+     */
+    public static final List<String> blockedResourceTypes = listProperty("network.block");
+
+    /**
+     * The URL patterns which are not loaded by the browser, with {@code *} wildcards, set with {@code -Dnetwork.block.urls}.
+     */
+    public static final List<String> blockedUrlPatterns = listProperty("network.block.urls");
+
+    /**
+     * Whether the timing of every navigation is captured and attached to the report, set with {@code -Dperf.capture}.
+     */
+    public static final boolean capturePerformance = Boolean.parseBoolean(System.getProperty("perf.capture", "true"));
+
+    /**
+     * The budget in milliseconds for the 95th percentile of the login round trip, set with {@code -Dbudget.login.p95}.
+     */
+    public static final long loginBudgetMillis = Long.getLong("budget.login.p95", 800);
+
+    /**
+     * The file the action timing histograms are written to at the end of the run, set with {@code -Dtimings.file}.
+     */
+    public static final String actionTimingsFile = System.getProperty("timings.file", "target/action-timings.json");
+
+    /**
+     * The file every finished test is streamed to as one JSON line, set with {@code -Dresults.file}.
+     */
+    public static final String resultsFile = System.getProperty("results.file", "target/test-results.jsonl");
+
+    /**
+     * The file the expected test durations are kept in between runs, set with {@code -Dtiming.history}.
+     */
+    public static final String timingHistoryFile = System.getProperty("timing.history", "test-timings.properties");
+
+    /**
+     * The duration in milliseconds expected of a test without history, set with {@code -Dtiming.default}.
+     */
+    public static final long defaultTestMillis = Long.getLong("timing.default", 5000);
+
+    /**
+     * The shard of the tests run by this JVM, starting at 0, set with {@code -Dshard.index}.
+     */
+    public static final int shardIndex = Integer.getInteger("shard.index", 0);
+
+    /**
+     * The number of shards the tests are split into, set with {@code -Dshard.count}. 1 runs all tests.
+     */
+    public static final int shardCount = Integer.getInteger("shard.count", 1);
+
+    /**
+     * The minimum level of the log, set with {@code -Dlog.level}, e.g. {@code -Dlog.level=WARNING}.
+     */
+    public static final String logLevel = System.getProperty("log.level", "ALL");
+
+    /**
+     * The number of log records buffered for the background log writer, set with {@code -Dlog.buffer}.
+     */
+    public static final int logBufferSize = Integer.getInteger("log.buffer", 8192);
+
+    /**
+     * The pattern of the rolling log files, set with {@code -Dlog.file}. An empty value disables the log files.
+     */
+    public static final String logFilePattern = System.getProperty("log.file", "target/logs/test-run.%g.log");
+
+    /**
+     * Whether the log is printed to the console, set with {@code -Dlog.console}, e.g. {@code -Dlog.console=false}
+     * for the benchmarks.
+     */
+    public static final boolean logConsole = Boolean.parseBoolean(System.getProperty("log.console", "true"));
+
+    /**
+     * The application the tests run against, set with {@code -Dtarget}: {@code live} for
+     * {@code https://the-internet.herokuapp.com}, which is the default, or {@code standin} for the embedded
+     * {@link StandInServer}.
+     */
+    public static final String target = System.getProperty("target", "live");
+
+    /**
+     * The port of the {@link StandInServer}, set with {@code -Dstandin.port}. Defaults to 0, a free port.
+     */
+    public static final int standInPort = Integer.getInteger("standin.port", 0);
+
+    /**
+     * The delay in milliseconds of every response of the {@link StandInServer}, set with {@code -Dstandin.latency}.
+     */
+    public static final long standInLatencyMillis = Long.getLong("standin.latency", 0);
+
+    /**
+     * The maximum random delay in milliseconds added to the latency of the {@link StandInServer},
+     * set with {@code -Dstandin.jitter}.
+     */
+    public static final long standInJitterMillis = Long.getLong("standin.jitter", 0);
+
+    /**
+     * The share of requests the {@link StandInServer} answers with an error, between 0 and 1,
+     * set with {@code -Dstandin.error.rate}.
+     */
+    public static final double standInErrorRate = Double.parseDouble(System.getProperty("standin.error.rate", "0"));
+
+    /**
+     * The number of sessions the {@link StandInServer} keeps, the least recently used ones are removed first,
+     * set with {@code -Dstandin.max.sessions}.
+     */
+    public static final int standInMaxSessions = Integer.getInteger("standin.max.sessions", 10_000);
+
+    /**
+     * The number of virtual users of a load run, set with {@code -Dload.users}, see {@link LoadRunner}.
+     */
+    public static final int loadUsers = Integer.getInteger("load.users", 10);
+
+    /**
+     * The time in milliseconds over which the virtual users of a load run are started, set with {@code -Dload.rampup}.
+     */
+    public static final long loadRampUpMillis = Long.getLong("load.rampup", 0);
+
+    /**
+     * The duration in milliseconds of a load run, including the ramp-up, set with {@code -Dload.duration}.
+     */
+    public static final long loadDurationMillis = Long.getLong("load.duration", 60000);
+
+    /**
+     * The pause in milliseconds of a virtual user between two iterations of a load run, set with {@code -Dload.think}.
+     */
+    public static final long loadThinkMillis = Long.getLong("load.think", 0);
+
+    /**
+     * The highest share of failed iterations between 0 and 1 for which a load run passes, set with {@code -Dload.max.error.rate}.
+     */
+    public static final double loadMaxErrorRate = Double.parseDouble(System.getProperty("load.max.error.rate", "0.01"));
+
+    /**
+     * The file the report of a load run is written to as JSON, set with {@code -Dload.report}.
+     */
+    public static final String loadReportFile = System.getProperty("load.report", "target/load-report.json");
+
+    /**
+     * The directory the data files of data-driven tests are looked up in first, set with {@code -Ddata.dir},
+     * see {@link DataFile}. By default they are looked up on the classpath and in the working directory.
+     */
+    public static final String dataDirectory = System.getProperty("data.dir", "");
+
+    /**
+     * The number of partitions the rows of a data file are split into within one JVM, set with {@code -Ddata.partitions}.
+     * Every partition runs at the same time with its own session, see {@link BrowserTest#partitioned()}.
+     */
+    public static final int dataPartitions = Math.max(1, Integer.getInteger("data.partitions", 1));
+
+    /**
+     * The number of failed rows after which a data-driven test stops reading its data file, set with
+     * {@code -Ddata.max.failures}. Defaults to 0, which runs all rows.
+     */
+    public static final int dataMaxFailures = Integer.getInteger("data.max.failures", 0);
+
+    /**
+     * Whether a screenshot, the page source and the browser logs are captured when a test fails,
+     * set with {@code -Dartifacts.capture}, see {@link FailureArtifacts}.
+     */
+    public static final boolean captureArtifacts = Boolean.parseBoolean(System.getProperty("artifacts.capture", "true"));
+
+    /**
+     * The directory the failure artifacts are written to, set with {@code -Dartifacts.dir}.
+     */
+    public static final String artifactDirectory = System.getProperty("artifacts.dir", "target/failure-artifacts");
+
+    /**
+     * The number of background threads which compress and write failure artifacts, set with {@code -Dartifacts.threads}.
+     */
+    public static final int artifactThreads = Math.max(1, Integer.getInteger("artifacts.threads", 1));
+
+    /**
+     * The number of captured failures which may wait to be written, set with {@code -Dartifacts.queue}.
+     * Failures captured while the queue is full are dropped.
+     */
+    public static final int artifactQueueSize = Math.max(1, Integer.getInteger("artifacts.queue", 32));
+
+    /**
+     * The maximum size in megabytes of all failure artifacts of a run, set with {@code -Dartifacts.max.mb}.
+     */
+    public static final long artifactMaxMegabytes = Long.getLong("artifacts.max.mb", 200);
+
     /**
      * The base URL
+     * <p>
+     * The URLs are initialized after all other constants, because they may start the {@link StandInServer},
+     * which is configured with them.
+     * </p>
+     */
+    public static final String baseURL = url("/login");
+
+    /**
+     * The URL of the secure area which is shown after a successful login
+     */
+    public static final String secureURL = url("/secure");
+
+    /**
+     * Method which returns the URL of a path of the application under test, see {@link #target}.
+     * The {@link StandInServer} is started when it is the target.
+     *
+     * @param path The absolute path.
+     * @return The URL of the path.
+     */
+    private static String url(String path) {
+        if ("standin".equalsIgnoreCase(target)) {
+            return StandInServer.start().url(path);
+        }
+        return "https://the-internet.herokuapp.com" + path;
+    }
+
+    /**
+     * Reads a comma separated list from a system property.
+     *
+     * @param name The name of the system property.
+     * @return The trimmed, non-empty values of the property.
      */
-    public static final String baseURL = "https://the-internet.herokuapp.com/login";
-}
\ No newline at end of file
+    private static List<String> listProperty(String name) {
+        List<String> values = new ArrayList<>();
+        for (String value : System.getProperty(name, "").split(",")) {
+            if (!value.trim().isEmpty()) {
+                values.add(value.trim());
+            }
+        }
+        return Collections.unmodifiableList(values);
+    }
+}
@@ -0,0 +1,298 @@
+package Utils;
+
+import org.openqa.selenium.InvalidSelectorException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The CssSelector class evaluates CSS selectors against the nodes of an {@link HtmlDocument}.
+ * <p>
+ * It supports the selectors the page objects are written with: type selectors, {@code *}, {@code #id},
+ * {@code .class}, attribute selectors ({@code [name]}, {@code [name=value]}, {@code ~=}, {@code ^=}, {@code $=},
+ * {@code *=}) with quoted or unquoted values, the descendant and child ({@code >}) combinators and selector lists.
+ * Any other selector is rejected with an {@link InvalidSelectorException}.
+ * </p>
+ */
+final class CssSelector {
+
+    private final String selector;
+
+    /**
+     * The alternatives of a selector list, each one a chain of compound selectors from left to right.
+     */
+    private final List<List<Compound>> alternatives = new ArrayList<>();
+
+    /**
+     * A compound selector, e.g. {@code button[type='submit']}, and the combinator which links it to the compound
+     * on its left.
+     */
+    private static final class Compound {
+        private String tag;
+        private final List<String> ids = new ArrayList<>();
+        private final List<String> classes = new ArrayList<>();
+        private final List<String[]> attributes = new ArrayList<>();
+        private char combinator = ' ';
+
+        private boolean matches(HtmlDocument.Node node) {
+            if (node.isText() || tag != null && !tag.equals(node.getTag())) {
+                return false;
+            }
+            for (String id : ids) {
+                if (!id.equals(node.getAttribute("id"))) {
+                    return false;
+                }
+            }
+            if (!classes.isEmpty()) {
+                String classAttribute = node.getAttribute("class");
+                if (classAttribute == null) {
+                    return false;
+                }
+                List<String> nodeClasses = Arrays.asList(classAttribute.trim().split("\\s+"));
+                if (!nodeClasses.containsAll(classes)) {
+                    return false;
+                }
+            }
+            for (String[] attribute : attributes) {
+                String actual = node.getAttribute(attribute[0]);
+                if (actual == null || !matchesValue(attribute[1], actual, attribute[2])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean matchesValue(String operator, String actual, String expected) {
+            switch (operator) {
+                case "":
+                    return true;
+                case "=":
+                    return actual.equals(expected);
+                case "~=":
+                    return Arrays.asList(actual.trim().split("\\s+")).contains(expected);
+                case "^=":
+                    return !expected.isEmpty() && actual.startsWith(expected);
+                case "$=":
+                    return !expected.isEmpty() && actual.endsWith(expected);
+                case "*=":
+                    return !expected.isEmpty() && actual.contains(expected);
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * Parses a selector.
+     *
+     * @param selector The CSS selector.
+     * @throws InvalidSelectorException If the selector is not supported.
+     */
+    CssSelector(String selector) {
+        this.selector = selector;
+        for (String alternative : splitList(selector)) {
+            alternatives.add(parseChain(alternative.trim()));
+        }
+    }
+
+    /**
+     * Checks if an element matches the selector.
+     *
+     * @param node The element.
+     * @return true if the element matches one of the alternatives of the selector.
+     */
+    boolean matches(HtmlDocument.Node node) {
+        for (List<Compound> chain : alternatives) {
+            if (matches(chain, chain.size() - 1, node)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(List<Compound> chain, int index, HtmlDocument.Node node) {
+        Compound compound = chain.get(index);
+        if (!compound.matches(node)) {
+            return false;
+        }
+        if (index == 0) {
+            return true;
+        }
+        if (compound.combinator == '>') {
+            HtmlDocument.Node parent = node.getParent();
+            return parent != null && matches(chain, index - 1, parent);
+        }
+        for (HtmlDocument.Node ancestor = node.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+            if (matches(chain, index - 1, ancestor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<String> splitList(String list) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        char quote = 0;
+        int start = 0;
+        for (int i = 0; i < list.length(); i++) {
+            char c = list.charAt(i);
+            if (quote != 0) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                parts.add(list.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(list.substring(start));
+        return parts;
+    }
+
+    private List<Compound> parseChain(String text) {
+        if (text.isEmpty()) {
+            throw invalid();
+        }
+        List<Compound> chain = new ArrayList<>();
+        Compound compound = new Compound();
+        boolean empty = true;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c) || c == '>') {
+                char combinator = ' ';
+                while (i < text.length() && (Character.isWhitespace(text.charAt(i)) || text.charAt(i) == '>')) {
+                    if (text.charAt(i) == '>') {
+                        combinator = '>';
+                    }
+                    i++;
+                }
+                if (empty) {
+                    throw invalid();
+                }
+                chain.add(compound);
+                compound = new Compound();
+                compound.combinator = combinator;
+                empty = true;
+            } else if (c == '#' || c == '.') {
+                int end = identifierEnd(text, i + 1);
+                String name = unescape(text.substring(i + 1, end));
+                if (name.isEmpty()) {
+                    throw invalid();
+                }
+                (c == '#' ? compound.ids : compound.classes).add(name);
+                i = end;
+                empty = false;
+            } else if (c == '[') {
+                i = parseAttribute(text, i, compound);
+                empty = false;
+            } else if (c == '*' && empty && compound.tag == null) {
+                i++;
+                empty = false;
+            } else if (Character.isLetter(c) && empty) {
+                int end = identifierEnd(text, i);
+                compound.tag = text.substring(i, end).toLowerCase(Locale.ROOT);
+                i = end;
+                empty = false;
+            } else {
+                throw invalid();
+            }
+        }
+        if (empty) {
+            throw invalid();
+        }
+        chain.add(compound);
+        return chain;
+    }
+
+    private int parseAttribute(String text, int start, Compound compound) {
+        int end = start + 1;
+        char quote = 0;
+        while (end < text.length() && (quote != 0 || text.charAt(end) != ']')) {
+            char c = text.charAt(end);
+            if (quote != 0 && c == '\\') {
+                end++;
+            } else if (quote != 0 && c == quote) {
+                quote = 0;
+            } else if (quote == 0 && (c == '"' || c == '\'')) {
+                quote = c;
+            }
+            end++;
+        }
+        if (end >= text.length()) {
+            throw invalid();
+        }
+        String body = text.substring(start + 1, end).trim();
+        int operatorIndex = body.indexOf('=');
+        if (operatorIndex < 0) {
+            compound.attributes.add(new String[]{body.toLowerCase(Locale.ROOT), "", null});
+            return end + 1;
+        }
+        int nameEnd = operatorIndex;
+        String operator = "=";
+        if (operatorIndex > 0 && "~^$*".indexOf(body.charAt(operatorIndex - 1)) >= 0) {
+            operator = body.charAt(operatorIndex - 1) + "=";
+            nameEnd = operatorIndex - 1;
+        }
+        String name = body.substring(0, nameEnd).trim().toLowerCase(Locale.ROOT);
+        String value = body.substring(operatorIndex + 1).trim();
+        if (value.length() >= 2 && (value.charAt(0) == '"' || value.charAt(0) == '\'') && value.charAt(value.length() - 1) == value.charAt(0)) {
+            value = value.substring(1, value.length() - 1);
+        }
+        if (name.isEmpty()) {
+            throw invalid();
+        }
+        compound.attributes.add(new String[]{name, operator, unescape(value)});
+        return end + 1;
+    }
+
+    private static int identifierEnd(String text, int start) {
+        int end = start;
+        while (end < text.length()) {
+            char c = text.charAt(end);
+            if (c == '\\' && end + 1 < text.length()) {
+                end += 2;
+            } else if (Character.isLetterOrDigit(c) || c == '-' || c == '_') {
+                end++;
+            } else {
+                break;
+            }
+        }
+        return end;
+    }
+
+    private static String unescape(String text) {
+        if (text.indexOf('\\') < 0) {
+            return text;
+        }
+        StringBuilder unescaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                c = text.charAt(++i);
+            }
+            unescaped.append(c);
+        }
+        return unescaped.toString();
+    }
+
+    private InvalidSelectorException invalid() {
+        return new InvalidSelectorException("Unsupported CSS selector without a browser: " + selector);
+    }
+
+    @Override
+    public String toString() {
+        return selector;
+    }
+}
@@ -0,0 +1,61 @@
+package Utils;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The DataFile annotation feeds a {@code @ParameterizedTest} with the rows of a CSV or JSON Lines file.
+ * <p>
+ * The rows are read one at a time while the test runs, so the memory used does not grow with the size of the file.
+ * Every row becomes one invocation of the test, its columns are passed as the arguments of the test method in the
+ * order of {@link #columns()}, or in the order of the file when no columns are given.
+ * </p>
+ * <p>
+ * The rows are split across the shards of a sharded run ({@code -Dshard.index}, {@code -Dshard.count}) and across
+ * the partitions of a {@link BrowserTest#partitioned() partitioned} test class, each of which runs with its own
+ * session. After {@link Constants#dataMaxFailures} failed rows the remaining rows are skipped.
+ * See {@link DataFileArgumentsProvider} for the file formats.
+ * </p>
+ *
+ * Example usage:
+ * <pre>{@code
+ * @ParameterizedTest(name = "{0} -> {2}")
+ * @DataFile("login-cases.csv")
+ * public void login(String username, String password, String expected) { ... }
+ * }</pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@ArgumentsSource(DataFileArgumentsProvider.class)
+@ExtendWith(DataFileArgumentsProvider.FailureCounter.class)
+public @interface DataFile {
+
+    /**
+     * The path of the data file, looked up in {@link Constants#dataDirectory}, on the classpath and in the working
+     * directory. Files ending with {@code .jsonl} or {@code .ndjson} are read as JSON Lines, all others as CSV.
+     *
+     * @return The path of the data file.
+     */
+    String value();
+
+    /**
+     * The columns passed to the test method, by their name in the CSV header or their key in the JSON objects.
+     *
+     * @return The column names, empty to pass all columns.
+     */
+    String[] columns() default {};
+
+    /**
+     * The number of failed rows after which the remaining rows are skipped.
+     *
+     * @return The failure limit, -1 to use {@link Constants#dataMaxFailures}, 0 to run all rows.
+     */
+    int maxFailures() default -1;
+}
@@ -0,0 +1,446 @@
+package Utils;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.TestWatcher;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.ArgumentsProvider;
+import org.junit.jupiter.params.support.AnnotationConsumer;
+import org.junit.jupiter.params.support.ParameterDeclarations;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The DataFileArgumentsProvider class streams the rows of a {@link DataFile} into a parameterized test.
+ * <p>
+ * The file is read line by line while the invocations of the test run, so only the current row is kept in memory.
+ * Two formats are supported, both UTF-8 and optionally gzip compressed ({@code .gz}):
+ * <ul>
+ *     <li>CSV: the first record is the header with the column names. Fields are separated by commas and may be
+ *     quoted with double quotes, a quote within a quoted field is written twice. Blank lines and lines starting
+ *     with {@code #} before the header are skipped. After the header every line is a record, e.g. a username
+ *     {@code #admin} or a field of spaces, except empty lines.</li>
+ *     <li>JSON Lines ({@code .jsonl}, {@code .ndjson}): one JSON object per line. Values which are not strings are
+ *     passed as text, so JUnit converts them to the parameter types like CSV fields. Blank lines and lines starting
+ *     with {@code #} are skipped.</li>
+ * </ul>
+ * The number of lines skipped after the header or the first object is logged when the file is closed.
+ * </p>
+ * <p>
+ * Rows are numbered in the order of the file. A run with {@code n} shards of {@code p} data partitions each splits
+ * the rows into {@code n * p} slices by their number, and every partition reads only the rows of its own slice.
+ * Every invocation is named after the line of its row, e.g. {@code row 17}.
+ * </p>
+ * <p>
+ * The {@link FailureCounter} counts the failed invocations of every data-driven test across all partitions;
+ * once the failure limit is reached, the providers of all partitions stop reading.
+ * </p>
+ */
+public class DataFileArgumentsProvider implements ArgumentsProvider, AnnotationConsumer<DataFile> {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger();
+
+    /**
+     * Failed invocations of every data-driven test of the run, by test class and method.
+     */
+    private static final Map<String, AtomicInteger> FAILURES = new ConcurrentHashMap<>();
+
+    private DataFile dataFile;
+
+    @Override
+    public void accept(DataFile dataFile) {
+        this.dataFile = dataFile;
+    }
+
+    /**
+     * Provides the rows of the slice of the current shard and data partition as a lazy stream.
+     * The data file is closed when JUnit closes the stream.
+     *
+     * @param parameters The parameters of the test method.
+     * @param context    The extension context of the test method.
+     * @return The arguments of the rows.
+     * @throws IOException If the data file cannot be opened.
+     */
+    @Override
+    public Stream<? extends Arguments> provideArguments(ParameterDeclarations parameters, ExtensionContext context) throws IOException {
+        int[] partition = BrowserInvocationProvider.partitionOf(context);
+        int limit = dataFile.maxFailures() >= 0 ? dataFile.maxFailures() : Constants.dataMaxFailures;
+        return rows(dataFile.value(), dataFile.columns(), context.getRequiredTestClass(),
+                slice(Constants.shardIndex, Constants.shardCount, partition[0], partition[1]),
+                limit, failures(context), context.getDisplayName());
+    }
+
+    /**
+     * Method which returns the slice of the rows read by one data partition of one shard.
+     * The partitions of a shard take consecutive slices, so every row is read by exactly one partition of the run.
+     *
+     * @param shardIndex The index of the shard.
+     * @param shardCount The number of shards.
+     * @param partition  The index of the data partition.
+     * @param partitions The number of data partitions per shard.
+     * @return The index of the slice and the number of slices.
+     */
+    static int[] slice(int shardIndex, int shardCount, int partition, int partitions) {
+        return new int[]{shardIndex * partitions + partition, shardCount * partitions};
+    }
+
+    /**
+     * Streams the rows of one slice of a data file, until the failure limit is reached.
+     *
+     * @param path      The path of the data file.
+     * @param columns   The columns to pass, empty for all.
+     * @param testClass The test class, whose class loader finds data files on the classpath.
+     * @param slice     The index of the slice and the number of slices, see {@link #slice(int, int, int, int)}.
+     * @param limit     The number of failures after which no more rows are read, 0 for no limit.
+     * @param failures  The failures of the test so far.
+     * @param testName  The name of the test, for the log.
+     * @return The arguments of the rows.
+     * @throws IOException If the data file cannot be opened.
+     */
+    static Stream<Arguments> rows(String path, String[] columns, Class<?> testClass, int[] slice, int limit,
+                                  AtomicInteger failures, String testName) throws IOException {
+        BufferedReader reader = open(path, testClass);
+        String format = path.endsWith(".gz") ? path.substring(0, path.length() - 3) : path;
+        RowReader rows;
+        try {
+            rows = format.endsWith(".jsonl") || format.endsWith(".ndjson")
+                    ? new JsonRows(reader, columns) : new CsvRows(reader, path, columns);
+        } catch (RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+
+        Iterator<Arguments> iterator = new Iterator<Arguments>() {
+            private Arguments next;
+            private long rowNumber;
+            private boolean stopped;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && !stopped) {
+                    if (limit > 0 && failures.get() >= limit) {
+                        stopped = true;
+                        LOGGER.warning(() -> "Stopped reading " + path + " for " + testName
+                                + " after " + failures.get() + " failed rows, the remaining rows are skipped.");
+                        break;
+                    }
+                    Row row = rows.next();
+                    if (row == null) {
+                        stopped = true;
+                    } else if (rowNumber++ % slice[1] == slice[0]) {
+                        next = Arguments.argumentSet("row " + row.line, row.values);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Arguments next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Arguments arguments = next;
+                next = null;
+                return arguments;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    if (rows.getSkippedCount() > 0) {
+                        LOGGER.info(() -> "Skipped " + rows.getSkippedCount() + " empty or comment lines between the rows of " + path + ".");
+                    }
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Opens a data file from {@link Constants#dataDirectory}, the classpath or the working directory.
+     */
+    private static BufferedReader open(String path, Class<?> testClass) throws IOException {
+        InputStream in;
+        Path file = Paths.get(path);
+        if (!Constants.dataDirectory.isEmpty() && !file.isAbsolute() && Files.isRegularFile(Paths.get(Constants.dataDirectory, path))) {
+            in = Files.newInputStream(Paths.get(Constants.dataDirectory, path));
+        } else if (file.isAbsolute() && Files.isRegularFile(file)) {
+            in = Files.newInputStream(file);
+        } else {
+            in = testClass.getClassLoader().getResourceAsStream(path.startsWith("/") ? path.substring(1) : path);
+            if (in == null && Files.isRegularFile(file)) {
+                in = Files.newInputStream(file);
+            }
+        }
+        if (in == null) {
+            throw new FileNotFoundException("Data file not found: " + path);
+        }
+        if (path.endsWith(".gz")) {
+            in = new GZIPInputStream(in, 65536);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 65536);
+    }
+
+    private static AtomicInteger failures(ExtensionContext context) {
+        String key = context.getRequiredTestClass().getName() + "#" + context.getRequiredTestMethod().getName();
+        return FAILURES.computeIfAbsent(key, newKey -> new AtomicInteger());
+    }
+
+    /**
+     * One row of a data file.
+     */
+    private static final class Row {
+        private final long line;
+        private final Object[] values;
+
+        private Row(long line, Object[] values) {
+            this.line = line;
+            this.values = values;
+        }
+    }
+
+    /**
+     * Reads the rows of a data file one at a time.
+     */
+    private abstract static class RowReader {
+        private final BufferedReader reader;
+        private long lineNumber;
+        private long skipped;
+
+        RowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Method which returns the next row of the file.
+         *
+         * @return The row, or null at the end of the file.
+         */
+        abstract Row next();
+
+        String readLine() {
+            try {
+                String line = reader.readLine();
+                if (line != null) {
+                    lineNumber++;
+                }
+                return line;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        long getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * Method which returns the number of lines skipped after the first row or the header.
+         */
+        long getSkippedCount() {
+            return skipped;
+        }
+
+        /**
+         * Reads the next line, skipping the lines which are no row.
+         *
+         * @param isSkipped The lines which are no row.
+         * @param counted   true to count the skipped lines, false before the first row or the header.
+         * @return The line, or null at the end of the file.
+         */
+        String readRowLine(Predicate<String> isSkipped, boolean counted) {
+            String line = readLine();
+            while (line != null && isSkipped.test(line)) {
+                if (counted) {
+                    skipped++;
+                }
+                line = readLine();
+            }
+            return line;
+        }
+
+        static boolean isBlankOrComment(String line) {
+            String trimmed = line.trim();
+            return trimmed.isEmpty() || trimmed.startsWith("#");
+        }
+    }
+
+    /**
+     * Reads CSV records, selecting the columns by the names of the header.
+     */
+    private static final class CsvRows extends RowReader {
+        private final int[] indexes;
+        private long recordLine;
+        private boolean headerRead;
+
+        CsvRows(BufferedReader reader, String path, String[] columns) {
+            super(reader);
+            List<String> header = record();
+            headerRead = true;
+            if (header == null) {
+                throw new IllegalArgumentException("Data file has no header: " + path);
+            }
+            if (columns.length == 0) {
+                indexes = new int[header.size()];
+                for (int i = 0; i < indexes.length; i++) {
+                    indexes[i] = i;
+                }
+            } else {
+                indexes = new int[columns.length];
+                for (int i = 0; i < columns.length; i++) {
+                    indexes[i] = header.indexOf(columns[i]);
+                    if (indexes[i] < 0) {
+                        throw new IllegalArgumentException("Column '" + columns[i] + "' not found in the header of "
+                                + path + ": " + header);
+                    }
+                }
+            }
+        }
+
+        @Override
+        Row next() {
+            List<String> fields = record();
+            if (fields == null) {
+                return null;
+            }
+            Object[] values = new Object[indexes.length];
+            for (int i = 0; i < indexes.length; i++) {
+                values[i] = indexes[i] < fields.size() ? fields.get(indexes[i]) : null;
+            }
+            return new Row(recordLine, values);
+        }
+
+        /**
+         * Reads the fields of the next record, which may span several lines within a quoted field.
+         * Comments are only skipped before the header, a record only skips empty lines.
+         */
+        private List<String> record() {
+            String line = headerRead ? readRowLine(String::isEmpty, true) : readRowLine(RowReader::isBlankOrComment, false);
+            if (line == null) {
+                return null;
+            }
+            recordLine = getLineNumber();
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; ; i++) {
+                if (i == line.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    String continuation = readLine();
+                    if (continuation == null) {
+                        break;
+                    }
+                    field.append('\n');
+                    line = continuation;
+                    i = -1;
+                    continue;
+                }
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    /**
+     * Reads one JSON object per line, selecting the columns by their keys.
+     */
+    private static final class JsonRows extends RowReader {
+        private final Json json = new Json();
+        private final String[] columns;
+        private boolean rowRead;
+
+        JsonRows(BufferedReader reader, String[] columns) {
+            super(reader);
+            this.columns = columns;
+        }
+
+        @Override
+        Row next() {
+            String line = readRowLine(RowReader::isBlankOrComment, rowRead);
+            if (line == null) {
+                return null;
+            }
+            rowRead = true;
+            Map<String, Object> object;
+            try {
+                object = json.toType(line, Json.MAP_TYPE);
+            } catch (JsonException e) {
+                throw new IllegalArgumentException("Invalid JSON on line " + getLineNumber() + ": " + e.getMessage(), e);
+            }
+            Object[] values;
+            if (columns.length == 0) {
+                values = object.values().toArray();
+            } else {
+                values = new Object[columns.length];
+                for (int i = 0; i < columns.length; i++) {
+                    values[i] = object.get(columns[i]);
+                }
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null && !(values[i] instanceof String)) {
+                    values[i] = values[i] instanceof Map || values[i] instanceof List ? json.toJson(values[i]) : String.valueOf(values[i]);
+                }
+            }
+            return new Row(getLineNumber(), values);
+        }
+    }
+
+    /**
+     * The extension which counts the failed invocations of the data-driven tests for the failure limit.
+     * It is registered by the {@link DataFile} annotation.
+     */
+    public static class FailureCounter implements TestWatcher {
+
+        @Override
+        public void testFailed(ExtensionContext context, Throwable cause) {
+            if (context.getTestMethod().filter(method -> method.isAnnotationPresent(DataFile.class)).isPresent()) {
+                failures(context).incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package Utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The DomWait class waits for an element to reach a given state without polling the driver.
+ * <p>
+ * A {@code MutationObserver} is installed in the page with one asynchronous script call. The observer re-checks
+ * the condition on every change of the DOM and completes the script as soon as the condition holds, so the wait
+ * returns right after the page has changed instead of on the next polling tick. If the page is unloaded while
+ * waiting, for example after a form submission, the observer is installed again on the new page. The script marks
+ * the window it runs in, so when the script fails, a window without the mark shows that a new document has been
+ * loaded, whatever the error message of the driver says.
+ * </p>
+ * <p>
+ * Drivers which cannot execute scripts and locators which cannot be evaluated by a script fall back to a
+ * regular {@link WebDriverWait}.
+ * </p>
+ */
+public final class DomWait {
+
+    /**
+     * Enum representing the states an element can be waited for.
+     */
+    public enum Condition {
+        PRESENT, VISIBLE, TEXT_CONTAINS
+    }
+
+    /**
+     * Script which resolves with true as soon as the condition holds and with false when the timeout expires.
+     * Arguments: strategy, selector, condition, expected text, timeout in milliseconds, window mark, callback.
+     */
+    private static final String WAIT_SCRIPT =
+            "var using = arguments[0], selector = arguments[1], condition = arguments[2], text = arguments[3],"
+            + "    timeout = arguments[4], done = arguments[arguments.length - 1];"
+            + "window.__domWaitMark = arguments[5];"
+            + "function find() {"
+            + "  if (using === 'xpath') {"
+            + "    return document.evaluate(selector, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+            + "  }"
+            + "  return document.querySelector(selector);"
+            + "}"
+            + "function visible(el) {"
+            + "  var style = window.getComputedStyle(el), rect = el.getBoundingClientRect();"
+            + "  return style.display !== 'none' && style.visibility !== 'hidden' && (rect.width > 0 || rect.height > 0);"
+            + "}"
+            + "function check() {"
+            + "  var el = find();"
+            + "  if (!el) { return false; }"
+            + "  if (condition === 'PRESENT') { return true; }"
+            + "  if (!visible(el)) { return false; }"
+            + "  return condition === 'VISIBLE' || (el.innerText || el.textContent || '').indexOf(text) >= 0;"
+            + "}"
+            + "if (check()) { done(true); return; }"
+            + "var finished = false, timer, observer = new MutationObserver(function () {"
+            + "  if (!finished && check()) { finished = true; observer.disconnect(); clearTimeout(timer); done(true); }"
+            + "});"
+            + "observer.observe(document.documentElement || document,"
+            + "    {childList: true, subtree: true, attributes: true, characterData: true});"
+            + "timer = setTimeout(function () {"
+            + "  if (!finished) { finished = true; observer.disconnect(); done(false); }"
+            + "}, timeout);";
+
+    /**
+     * Script which tells whether the window still has the mark of a wait script, i.e. shows the same document.
+     */
+    private static final String MARK_SCRIPT = "return window.__domWaitMark === arguments[0];";
+
+    private static final AtomicLong MARKS = new AtomicLong();
+
+    private DomWait() {
+    }
+
+    /**
+     * Blocks until the element of the locator reaches the given state or the timeout expires.
+     * <p>
+     * The timeout must be shorter than the script timeout of the driver, which is 30 seconds by default.
+     * </p>
+     *
+     * @param driver        The WebDriver of the page.
+     * @param locator       The locator of the element.
+     * @param condition     The state to wait for.
+     * @param text          The text the element must contain for {@link Condition#TEXT_CONTAINS}, ignored otherwise.
+     * @param timeoutMillis The maximum time to wait in milliseconds.
+     * @return true if the condition holds, false if the timeout expired.
+     */
+    public static boolean until(WebDriver driver, By locator, Condition condition, String text, long timeoutMillis) {
+        String[] selector = Selectors.toSelector(locator);
+        if (!(driver instanceof JavascriptExecutor) || selector == null) {
+            return poll(driver, locator, condition, text, timeoutMillis);
+        }
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        JavascriptExecutor executor = (JavascriptExecutor) driver;
+        while (true) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            String mark = "dom-wait-" + MARKS.incrementAndGet();
+            try {
+                Object result = executor.executeAsyncScript(WAIT_SCRIPT,
+                        selector[0], selector[1], condition.name(), text == null ? "" : text, remaining, mark);
+                return Boolean.TRUE.equals(result);
+            } catch (WebDriverException e) {
+                // a new document without the mark has been loaded while waiting, observe it
+                if (!navigatedAway(executor, mark)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Method which tells whether the window has lost the mark of the wait script, i.e. has loaded a new document.
+     */
+    private static boolean navigatedAway(JavascriptExecutor executor, String mark) {
+        try {
+            return !Boolean.TRUE.equals(executor.executeScript(MARK_SCRIPT, mark));
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Waits for the condition by polling the driver.
+     */
+    private static boolean poll(WebDriver driver, By locator, Condition condition, String text, long timeoutMillis) {
+        ExpectedCondition<?> expected;
+        switch (condition) {
+            case PRESENT:
+                expected = ExpectedConditions.presenceOfElementLocated(locator);
+                break;
+            case VISIBLE:
+                expected = ExpectedConditions.visibilityOfElementLocated(locator);
+                break;
+            default:
+                expected = ExpectedConditions.textToBePresentInElementLocated(locator, text);
+        }
+        try {
+            new WebDriverWait(driver, Duration.ofMillis(timeoutMillis)).until(expected);
+            return true;
+        } catch (org.openqa.selenium.TimeoutException e) {
+            return false;
+        }
+    }
+}
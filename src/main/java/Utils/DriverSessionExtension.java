@@ -0,0 +1,176 @@
+package Utils;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.platform.commons.annotation.Testable;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * The DriverSessionExtension class is a JUnit 5 extension that ties the lifecycle of a browser session
+ * to the lifecycle of a test class.
+ * <p>
+ * A session is leased from the {@link WebDriverPool} of the browser of the class run before all tests of the class,
+ * kept in the extension store of the class and handed back after all tests have finished. Before each test the
+ * session is bound to the thread executing the test, so it can be resolved with {@link WebDriverPool#current()}
+ * even if JUnit runs the test on a different worker thread than the class setup.
+ * </p>
+ * <p>
+ * A {@link BrowserTest} class is run once per browser and JUnit calls the class callbacks only once for all runs,
+ * so every run leases its session before its first test instead, and hands it back when the run ends.
+ * The tests of a run share its session, so a {@link BrowserTest} class fails before its first test if one of its
+ * test methods is not marked with {@code @Execution(ExecutionMode.SAME_THREAD)}.
+ * </p>
+ * <p>
+ * If a {@link NetworkProfile} is installed in the session, its counters are logged after each test.
+ * </p>
+ */
+public class DriverSessionExtension implements BeforeAllCallback, AfterAllCallback, BeforeEachCallback, AfterEachCallback {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger();
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(DriverSessionExtension.class);
+
+    /**
+     * Leases a session for the test class and binds it to the current thread.
+     * A {@link BrowserTest} class is only checked for test methods which would run concurrently.
+     *
+     * @param context The extension context for the test class.
+     * @throws Exception If the thread is interrupted while waiting for a free session.
+     */
+    @Override
+    public void beforeAll(ExtensionContext context) throws Exception {
+        if (AnnotationSupport.isAnnotated(context.getRequiredTestClass(), BrowserTest.class)) {
+            requireSameThread(context.getRequiredTestClass());
+            return;
+        }
+        Lease lease = new Lease(BrowserInvocationProvider.browserOf(context));
+        context.getStore(NAMESPACE).put(Lease.class, lease);
+        WebDriverPool.bind(lease.driver);
+    }
+
+    /**
+     * Checks that all test methods of a {@link BrowserTest} class run on the thread of their run.
+     * <p>
+     * The runs of a {@link BrowserTest} class are concurrent, and JUnit runs the test methods of the class
+     * concurrently as well unless they are marked otherwise. The tests of a run would then share its session at
+     * the same time.
+     * </p>
+     *
+     * @param testClass The test class.
+     * @throws IllegalStateException If a test method is not marked with {@code @Execution(ExecutionMode.SAME_THREAD)}.
+     */
+    static void requireSameThread(Class<?> testClass) {
+        List<String> concurrent = AnnotationSupport.findAnnotatedMethods(testClass, Testable.class, HierarchyTraversalMode.TOP_DOWN)
+                .stream()
+                .filter(method -> AnnotationSupport.findAnnotation(method, Execution.class)
+                        .map(Execution::value).orElse(ExecutionMode.CONCURRENT) != ExecutionMode.SAME_THREAD)
+                .map(Method::getName)
+                .collect(Collectors.toList());
+        if (!concurrent.isEmpty()) {
+            throw new IllegalStateException("Test methods of @BrowserTest class " + testClass.getName()
+                    + " must be marked with @Execution(ExecutionMode.SAME_THREAD): " + concurrent);
+        }
+    }
+
+    /**
+     * Binds the session of the test class to the thread which executes the test and starts the performance samples
+     * of the test.
+     * The session of a run of a {@link BrowserTest} class is leased before the first test of the run. The
+     * {@link TestResultLogger} timing of the test starts before, so its setup time includes the lease.
+     *
+     * @param context The extension context for the test.
+     */
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        TestResultLogger.startTiming(context);
+        WebDriver driver = lease(context).driver;
+        WebDriverPool.bind(driver);
+        PerformanceBudget.startTest();
+        NetworkProfile profile = NetworkProfile.forDriver(driver);
+        if (profile != null) {
+            profile.reset();
+        }
+    }
+
+    /**
+     * Removes the session binding of the thread which executed the test.
+     *
+     * @param context The extension context for the test.
+     */
+    @Override
+    public void afterEach(ExtensionContext context) {
+        NetworkProfile profile = NetworkProfile.forDriver(lease(context).driver);
+        if (profile != null) {
+            LOGGER.info(() -> "Network profile for test: " + context.getDisplayName() + ": " + profile.summary());
+        }
+        WebDriverPool.unbind();
+    }
+
+    /**
+     * Hands the session of the test class back to the pool.
+     *
+     * @param context The extension context for the test class.
+     */
+    @Override
+    public void afterAll(ExtensionContext context) {
+        WebDriverPool.unbind();
+        Lease lease = context.getStore(NAMESPACE).remove(Lease.class, Lease.class);
+        if (lease != null) {
+            lease.close();
+        }
+    }
+
+    /**
+     * Method which returns the session lease of the class, or of the class run, a test belongs to.
+     *
+     * @param context The extension context for the test.
+     * @return The lease, leased now if the run has none yet.
+     */
+    private static Lease lease(ExtensionContext context) {
+        ExtensionContext classContext = context.getParent().orElse(context);
+        Browser browser = BrowserInvocationProvider.browserOf(context);
+        return classContext.getStore(NAMESPACE).getOrComputeIfAbsent(Lease.class, key -> {
+            try {
+                return new Lease(browser);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a " + browser.getName() + " session.", e);
+            }
+        }, Lease.class);
+    }
+
+    /**
+     * A session leased from the pool of a browser, handed back when it is closed. JUnit closes the leases
+     * left in the store of a class run when the run ends.
+     */
+    private static final class Lease implements AutoCloseable {
+        private final Browser browser;
+        private final WebDriver driver;
+        private boolean released;
+
+        private Lease(Browser browser) throws InterruptedException {
+            this.browser = browser;
+            this.driver = WebDriverPool.getInstance(browser).acquire();
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!released) {
+                released = true;
+                WebDriverPool.getInstance(browser).release(driver);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package Utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ElementCache class keeps the web elements found by one page object, keyed by their locator.
+ * <p>
+ * Repeated actions on the same element reuse the element found the first time instead of looking it up again.
+ * All cached elements of a driver are dropped when the driver navigates, which is reported with
+ * {@link #navigated(WebDriver)}, and a single element is dropped with {@link #evict(By)} when it has gone stale.
+ * </p>
+ * <p>
+ * A click may or may not load a new page, and asking the driver would cost a round trip per click. Clicks are
+ * therefore not reported: the elements of a page loaded by a click go stale, and the stale element retry of
+ * {@link Base#withElement(By, java.util.function.Function)} evicts and finds them again on first use.
+ * </p>
+ * <p>
+ * A cache belongs to one page object and is not thread-safe. The hit and miss counters are shared
+ * by all caches and can be read with {@link #summary()}.
+ * </p>
+ */
+public final class ElementCache {
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder staleEvictions = new LongAdder();
+
+    /**
+     * The number of navigations of every driver, used to detect that cached elements belong to a previous page.
+     */
+    private static final Map<WebDriver, AtomicLong> navigations = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final WebDriver driver;
+    private final Map<By, WebElement> elements = new HashMap<>();
+    private long navigation;
+
+    /**
+     * Constructs a new empty cache for elements found with the specified WebDriver instance.
+     *
+     * @param driver The WebDriver used to find elements.
+     */
+    public ElementCache(WebDriver driver) {
+        this.driver = driver;
+        this.navigation = navigations(driver).get();
+    }
+
+    /**
+     * Returns the cached element for the locator, finding it with the driver if it is not cached yet.
+     *
+     * @param locator The locator of the element.
+     * @return The web element.
+     * @throws org.openqa.selenium.NoSuchElementException If the element is not present on the page.
+     */
+    public WebElement find(By locator) {
+        long current = navigations(driver).get();
+        if (current != navigation) {
+            elements.clear();
+            navigation = current;
+        }
+        WebElement element = elements.get(locator);
+        if (element != null) {
+            hits.increment();
+            return element;
+        }
+        misses.increment();
+        element = driver.findElement(locator);
+        elements.put(locator, element);
+        return element;
+    }
+
+    /**
+     * Drops the cached element of a locator after it has gone stale.
+     *
+     * @param locator The locator of the stale element.
+     */
+    public void evict(By locator) {
+        if (elements.remove(locator) != null) {
+            staleEvictions.increment();
+        }
+    }
+
+    /**
+     * Reports that the driver has navigated, which drops the cached elements of all page objects using it.
+     *
+     * @param driver The WebDriver which has navigated.
+     */
+    public static void navigated(WebDriver driver) {
+        navigations(driver).incrementAndGet();
+    }
+
+    private static AtomicLong navigations(WebDriver driver) {
+        synchronized (navigations) {
+            return navigations.computeIfAbsent(driver, key -> new AtomicLong());
+        }
+    }
+
+    /**
+     * Method which returns the number of lookups answered from a cache, i.e. the driver round trips saved.
+     *
+     * @return The hit count.
+     */
+    public static long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Method which returns the number of lookups which had to be sent to the driver.
+     *
+     * @return The miss count.
+     */
+    public static long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Method which returns the cache counters in a human-readable form.
+     *
+     * @return The summary of hits, misses and stale evictions.
+     */
+    public static String summary() {
+        return "hits=" + hits.sum() + ", misses=" + misses.sum() + ", stale=" + staleEvictions.sum();
+    }
+}
@@ -0,0 +1,538 @@
+package Utils;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Attachment;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The FailureArtifacts class is a JUnit 5 extension which captures the state of the browser when a test fails.
+ * <p>
+ * Right after a failed test method, while the browser still shows the page of the failure, the extension takes a
+ * screenshot, the page source and the browser console logs of the session of the test. Only the capture and the
+ * bookkeeping happen on the test thread: the snapshot is handed to a bounded background executor, which hashes,
+ * compresses and writes the artifacts and the content of their Allure attachments.
+ * </p>
+ * <p>
+ * Artifacts are stored once per content in {@link Constants#artifactDirectory}, text artifacts gzip compressed,
+ * so tests failing on the same page share one file. Every failure is described by one line of
+ * {@code failures.jsonl} in the same directory, which drops lines instead of holding up the background threads
+ * when it falls behind. Identical Allure attachments are hard links to the first copy where the file system
+ * supports it.
+ * </p>
+ * <p>
+ * The size cap of {@link Constants#artifactMaxMegabytes} is decided on the test thread: every artifact reserves the
+ * largest size of its stored file and the size of its attachment before it is handed over, and the background
+ * executor gives back what compression, deduplication and hard links save. Artifacts which do not fit are left
+ * out, so the cap is never exceeded and only the attachments which will be written are registered with the test.
+ * When {@link Constants#artifactQueueSize} failures are already waiting, further failures are dropped with their
+ * reservations instead of blocking the tests. {@link #shutdown()} waits for the pending artifacts and logs the
+ * counters, the capture times on the test threads and the processing times in the background.
+ * </p>
+ */
+public class FailureArtifacts implements AfterTestExecutionCallback {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger();
+
+    private static final long MAX_BYTES = Constants.artifactMaxMegabytes * 1024 * 1024;
+    private static final Path ALLURE_RESULTS = Paths.get(System.getProperty("allure.results.directory", "allure-results"));
+
+    private static Writer run;
+
+    private final Writer writer;
+
+    /**
+     * Constructs the extension, which writes to the artifact directory and the Allure results of the run.
+     */
+    public FailureArtifacts() {
+        this(null);
+    }
+
+    /**
+     * Constructs an extension which writes with the given writer instead of the one of the run.
+     */
+    FailureArtifacts(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Captures the artifacts of the session of the test if the test method has failed.
+     * Tests without a leased session, e.g. tests of the framework itself, have nothing to capture.
+     *
+     * @param context The extension context of the test.
+     */
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        if (!Constants.captureArtifacts || !context.getExecutionException().isPresent()) {
+            return;
+        }
+        Optional<WebDriver> driver = WebDriverPool.findCurrent();
+        if (!driver.isPresent()) {
+            LOGGER.fine(() -> "No WebDriver session to capture for test: " + context.getDisplayName());
+            return;
+        }
+        (writer != null ? writer : run()).capture(context, driver.get());
+    }
+
+    private static synchronized Writer run() {
+        if (run == null) {
+            run = new Writer(Paths.get(Constants.artifactDirectory), ALLURE_RESULTS, Allure.getLifecycle(), MAX_BYTES,
+                    Constants.artifactThreads, Constants.artifactQueueSize);
+        }
+        return run;
+    }
+
+    /**
+     * Waits for the pending artifacts to be written and logs the counters of the run.
+     * It is called by the {@link RunLifecycleListener} at the end of the run.
+     */
+    public static void shutdown() {
+        Writer writer;
+        synchronized (FailureArtifacts.class) {
+            writer = run;
+            run = null;
+        }
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    /**
+     * Writes the failure artifacts of a run to a directory and to the Allure results, within a size cap.
+     * The counters are package-private for the tests of this class.
+     */
+    static final class Writer {
+        private final Path directory;
+        private final Path allureResults;
+        private final AllureLifecycle lifecycle;
+        private final long maxBytes;
+        private final int threads;
+        private final int queueSize;
+
+        private final LatencyHistogram captureTimes = new LatencyHistogram();
+        private final LatencyHistogram processTimes = new LatencyHistogram();
+        private final LongAdder captured = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder deduplicated = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+        /**
+         * The bytes written and the bytes reserved by artifacts which are waiting to be written.
+         */
+        private final AtomicLong bytes = new AtomicLong();
+
+        /**
+         * The stored artifact files by content, and the first Allure attachment of every content.
+         */
+        private final Map<String, Path> storedFiles = new ConcurrentHashMap<>();
+        private final Map<String, String> allureSources = new ConcurrentHashMap<>();
+
+        private ThreadPoolExecutor executor;
+        private JsonLinesWriter manifest;
+
+        /**
+         * Constructs a new writer. The executor and the manifest are created with the first failure.
+         *
+         * @param directory     The directory the artifacts and the manifest are written to.
+         * @param allureResults The directory of the Allure results, where attachments are linked.
+         * @param lifecycle     The Allure lifecycle the attachments are registered with and written by.
+         * @param maxBytes      The maximum size of all stored artifacts and attachments.
+         * @param threads       The number of background threads.
+         * @param queueSize     The number of failures which may wait to be written.
+         */
+        Writer(Path directory, Path allureResults, AllureLifecycle lifecycle, long maxBytes, int threads, int queueSize) {
+            this.directory = directory;
+            this.allureResults = allureResults;
+            this.lifecycle = lifecycle;
+            this.maxBytes = maxBytes;
+            this.threads = threads;
+            this.queueSize = queueSize;
+        }
+
+        /**
+         * Takes a snapshot of the session and hands it to the background executor, unless the size cap is reached.
+         */
+        void capture(ExtensionContext context, WebDriver driver) {
+            if (bytes.get() >= maxBytes) {
+                skipped.increment();
+                return;
+            }
+            long start = System.nanoTime();
+            Snapshot snapshot = new Snapshot(context, driver);
+            captureTimes.record(System.nanoTime() - start);
+            submit(snapshot);
+        }
+
+        /**
+         * Reserves the space of the artifacts of a snapshot, hands it to the background executor and registers the
+         * attachments of the reserved artifacts with the current Allure test.
+         */
+        private void submit(Snapshot snapshot) {
+            boolean attach = lifecycle.getCurrentTestCase().isPresent();
+            List<Attachment> attachments = new ArrayList<>();
+            for (Iterator<Artifact> artifacts = snapshot.artifacts.iterator(); artifacts.hasNext(); ) {
+                Artifact artifact = artifacts.next();
+                long size = artifact.maxStoredSize() + (attach ? artifact.content.length : 0);
+                if (!reserve(size)) {
+                    skipped.increment();
+                    artifacts.remove();
+                    continue;
+                }
+                artifact.reserved = size;
+                if (attach) {
+                    artifact.allureSource = UUID.randomUUID() + "-attachment" + artifact.extension;
+                    attachments.add(new Attachment().setName(artifact.name).setType(artifact.type).setSource(artifact.allureSource));
+                }
+            }
+            ThreadPoolExecutor pool = executor();
+            try {
+                pool.execute(() -> process(snapshot));
+            } catch (RejectedExecutionException e) {
+                dropped.increment();
+                for (Artifact artifact : snapshot.artifacts) {
+                    bytes.addAndGet(-artifact.reserved);
+                }
+                LOGGER.warning(() -> "Failure artifacts dropped for test: " + snapshot.test + ", " + queueSize
+                        + " failures are already waiting to be written.");
+                return;
+            }
+            captured.increment();
+            maxQueueDepth.accumulateAndGet(pool.getQueue().size(), Math::max);
+            if (!attachments.isEmpty()) {
+                lifecycle.updateTestCase(result -> result.getAttachments().addAll(attachments));
+            }
+        }
+
+        /**
+         * Adds the given size to the bytes of the run if the sum stays within the size cap.
+         *
+         * @return true if the size has been reserved, false if it does not fit.
+         */
+        private boolean reserve(long size) {
+            long current;
+            do {
+                current = bytes.get();
+                if (current + size > maxBytes) {
+                    return false;
+                }
+            } while (!bytes.compareAndSet(current, current + size));
+            return true;
+        }
+
+        /**
+         * Writes the artifacts of a snapshot and its line of the manifest, and gives back the part of the reservations
+         * which has not been written. Runs on the background executor.
+         */
+        private void process(Snapshot snapshot) {
+            long start = System.nanoTime();
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("test", snapshot.test);
+            record.put("browser", snapshot.browser);
+            record.put("time", snapshot.time.toString());
+            record.put("url", snapshot.url);
+            record.put("title", snapshot.title);
+            record.put("cause", snapshot.cause);
+            for (Artifact artifact : snapshot.artifacts) {
+                try {
+                    String key = artifact.kind + ":" + sha256(artifact.content);
+                    record.put(artifact.kind, store(key, artifact).getFileName().toString());
+                    if (artifact.allureSource != null) {
+                        attach(key, artifact);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.warning(() -> "Unable to write the " + artifact.kind + " of test: " + snapshot.test + " with cause: " + e);
+                } finally {
+                    bytes.addAndGet(-artifact.reserved);
+                }
+            }
+            JsonLinesWriter writer = manifest();
+            if (writer != null) {
+                writer.write(record);
+            }
+            processTimes.record(System.nanoTime() - start);
+        }
+
+        /**
+         * Stores an artifact under the hash of its content, unless the same content has been stored before.
+         * The size of a new file is taken from the reservation of the artifact.
+         *
+         * @return The stored file.
+         */
+        private Path store(String key, Artifact artifact) throws IOException {
+            Path file = storedFiles.get(key);
+            if (file != null) {
+                deduplicated.increment();
+                return file;
+            }
+            Files.createDirectories(directory);
+            String hash = key.substring(key.indexOf(':') + 1, key.indexOf(':') + 17);
+            file = directory.resolve(artifact.kind + "-" + hash + artifact.extension + (artifact.compress ? ".gz" : ""));
+            Path previous = storedFiles.putIfAbsent(key, file);
+            if (previous != null) {
+                deduplicated.increment();
+                return previous;
+            }
+            try (OutputStream out = artifact.compress
+                    ? new GZIPOutputStream(Files.newOutputStream(file), 8192) : Files.newOutputStream(file)) {
+                out.write(artifact.content);
+            }
+            artifact.keep(Files.size(file));
+            return file;
+        }
+
+        /**
+         * Writes the content of an Allure attachment, as a hard link to the first attachment with the same content if possible.
+         * The size of a copy is taken from the reservation of the artifact.
+         */
+        private void attach(String key, Artifact artifact) throws IOException {
+            String first = allureSources.putIfAbsent(key, artifact.allureSource);
+            if (first != null && Files.isRegularFile(allureResults.resolve(first))) {
+                try {
+                    Files.createLink(allureResults.resolve(artifact.allureSource), allureResults.resolve(first));
+                    return;
+                } catch (FileAlreadyExistsException e) {
+                    return;
+                } catch (IOException | UnsupportedOperationException | SecurityException e) {
+                    // fall back to a copy
+                }
+            }
+            lifecycle.writeAttachment(artifact.allureSource, new ByteArrayInputStream(artifact.content));
+            artifact.keep(artifact.content.length);
+        }
+
+        synchronized ThreadPoolExecutor executor() {
+            if (executor == null) {
+                AtomicInteger count = new AtomicInteger();
+                executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(queueSize), runnable -> {
+                            Thread thread = new Thread(runnable, "failure-artifacts-" + count.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+            }
+            return executor;
+        }
+
+        private synchronized JsonLinesWriter manifest() {
+            if (manifest == null) {
+                try {
+                    manifest = new JsonLinesWriter(directory.resolve("failures.jsonl"), JsonLinesWriter.DEFAULT_CAPACITY,
+                            JsonLinesWriter.Overflow.DROP);
+                } catch (IOException e) {
+                    LOGGER.warning(() -> "Unable to open the failure manifest with cause: " + e.getMessage());
+                }
+            }
+            return manifest;
+        }
+
+        /**
+         * Waits for the pending artifacts to be written, closes the manifest and logs the counters.
+         */
+        void shutdown() {
+            ThreadPoolExecutor pool;
+            JsonLinesWriter writer;
+            synchronized (this) {
+                pool = executor;
+                executor = null;
+            }
+            if (pool == null) {
+                return;
+            }
+            pool.shutdown();
+            try {
+                if (!pool.awaitTermination(30, TimeUnit.SECONDS)) {
+                    LOGGER.warning(() -> pool.getQueue().size() + " failure artifacts were not written in time.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (this) {
+                writer = manifest;
+                manifest = null;
+            }
+            if (writer != null) {
+                writer.close();
+            }
+            LOGGER.info(() -> String.format("Failure artifacts: %d captured, %d dropped, %d deduplicated, %d skipped by the size cap, "
+                            + "%d KB written, max queue depth %d, capture p50 %.1f ms p95 %.1f ms, processing p50 %.1f ms p95 %.1f ms",
+                    captured.sum(), dropped.sum(), deduplicated.sum(), skipped.sum(), bytes.get() / 1024, maxQueueDepth.get(),
+                    millis(captureTimes.getPercentile(50)), millis(captureTimes.getPercentile(95)),
+                    millis(processTimes.getPercentile(50)), millis(processTimes.getPercentile(95))));
+        }
+
+        long getCapturedCount() {
+            return captured.sum();
+        }
+
+        long getDroppedCount() {
+            return dropped.sum();
+        }
+
+        long getDeduplicatedCount() {
+            return deduplicated.sum();
+        }
+
+        long getSkippedCount() {
+            return skipped.sum();
+        }
+
+        /**
+         * @return The bytes written, plus the bytes reserved by artifacts which are waiting to be written.
+         */
+        long getBytes() {
+            return bytes.get();
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(content)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * One captured artifact.
+     */
+    private static final class Artifact {
+        private final String kind;
+        private final String name;
+        private final String type;
+        private final String extension;
+        private final boolean compress;
+        private final byte[] content;
+        private String allureSource;
+
+        /**
+         * The part of the reserved bytes which has not been written yet, given back when the artifact is done.
+         */
+        private long reserved;
+
+        private Artifact(String kind, String name, String type, String extension, boolean compress, byte[] content) {
+            this.kind = kind;
+            this.name = name;
+            this.type = type;
+            this.extension = extension;
+            this.compress = compress;
+            this.content = content;
+        }
+
+        /**
+         * Method which returns the size the stored file can have at most. Compressing can add the gzip header and
+         * trailer and a few bytes per block to content which does not compress.
+         *
+         * @return The maximum size in bytes.
+         */
+        private long maxStoredSize() {
+            return compress ? content.length + 18 + 5L * (content.length / 16383 + 1) : content.length;
+        }
+
+        /**
+         * Moves the given number of written bytes out of the reservation, so they stay counted.
+         */
+        private void keep(long written) {
+            reserved -= Math.min(written, reserved);
+        }
+    }
+
+    /**
+     * The state of the browser at the time of a failure. Taking it is the only work done on the test thread.
+     */
+    private static final class Snapshot {
+        private final String test;
+        private final String browser;
+        private final Instant time = Instant.now();
+        private final String cause;
+        private String url;
+        private String title;
+        private final List<Artifact> artifacts = new ArrayList<>();
+
+        private Snapshot(ExtensionContext context, WebDriver driver) {
+            this.test = context.getRequiredTestClass().getName() + "#" + context.getDisplayName();
+            this.browser = BrowserInvocationProvider.browserOf(context).getName();
+            Throwable failure = context.getExecutionException().orElse(null);
+            this.cause = failure == null ? null : failure.getClass().getSimpleName() + ": " + failure.getMessage();
+            try {
+                url = driver.getCurrentUrl();
+                title = driver.getTitle();
+            } catch (WebDriverException e) {
+                LOGGER.fine(() -> "Unable to read the page of the failure with cause: " + e.getMessage());
+            }
+            if (driver instanceof TakesScreenshot) {
+                try {
+                    byte[] screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+                    artifacts.add(new Artifact("screenshot", "Screenshot", "image/png", ".png", false, screenshot));
+                } catch (WebDriverException e) {
+                    LOGGER.fine(() -> "Unable to take a screenshot with cause: " + e.getMessage());
+                }
+            }
+            try {
+                String source = driver.getPageSource();
+                if (source != null) {
+                    artifacts.add(new Artifact("pageSource", "Page source", "text/html", ".html", true,
+                            source.getBytes(StandardCharsets.UTF_8)));
+                }
+            } catch (WebDriverException e) {
+                LOGGER.fine(() -> "Unable to read the page source with cause: " + e.getMessage());
+            }
+            try {
+                StringBuilder log = new StringBuilder();
+                for (LogEntry entry : driver.manage().logs().get(LogType.BROWSER)) {
+                    log.append(entry).append('\n');
+                }
+                if (log.length() > 0) {
+                    artifacts.add(new Artifact("browserLog", "Browser console log", "text/plain", ".log", true,
+                            log.toString().getBytes(StandardCharsets.UTF_8)));
+                }
+            } catch (WebDriverException | UnsupportedOperationException e) {
+                LOGGER.fine(() -> "Browser logs are not available with cause: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package Utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The FlightEvents class contains the custom Java Flight Recorder events emitted by the framework.
+ * <p>
+ * The events make it possible to record a whole test run, e.g. with {@code -XX:StartFlightRecording},
+ * and to line up browser sessions, element actions, navigations and test results against GC, thread contention
+ * and CPU usage in JDK Mission Control. Every event carries the thread it was emitted on.
+ * </p>
+ * <p>
+ * The events follow the usual JFR pattern of {@code begin()}, {@code end()} and {@code shouldCommit()},
+ * so nothing but a short-lived object is created while recording is off.
+ * </p>
+ */
+public final class FlightEvents {
+
+    /**
+     * The URL of the last navigation started by the framework on each thread.
+     */
+    private static final ThreadLocal<String> currentUrl = new ThreadLocal<>();
+
+    private FlightEvents() {
+    }
+
+    /**
+     * Remembers the URL of a navigation started on the current thread, so that it can be attached to the following events.
+     *
+     * @param url The URL being opened.
+     */
+    static void navigatedTo(String url) {
+        currentUrl.set(url);
+    }
+
+    /**
+     * Method which returns the URL of the last navigation started by the framework on the current thread.
+     *
+     * @return The URL, or null if the thread has not navigated yet.
+     */
+    static String currentUrl() {
+        return currentUrl.get();
+    }
+
+    /**
+     * Emitted when a browser session is started or quit by the {@link WebDriverPool}. Its duration is the time the browser needed.
+     */
+    @Name("Utils.DriverSession")
+    @Label("WebDriver Session")
+    @Category({"Selenium", "Test Framework"})
+    @Description("Start or stop of a browser session")
+    public static final class DriverSession extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Browser")
+        String browser;
+
+        @Label("Session Id")
+        String sessionId;
+    }
+
+    /**
+     * Emitted for every element action of a page object, such as a click, typing text or waiting for an element.
+     */
+    @Name("Utils.ElementAction")
+    @Label("Element Action")
+    @Category({"Selenium", "Test Framework"})
+    @Description("Action of a page object on a web element")
+    public static final class ElementAction extends Event {
+        @Label("Action")
+        String action;
+
+        @Label("Locator")
+        String locator;
+
+        @Label("URL")
+        @Description("URL of the last navigation started by the framework on this thread")
+        String url;
+    }
+
+    /**
+     * Emitted for every navigation started with {@link WebDriverHandler#open(String)}.
+     */
+    @Name("Utils.Navigation")
+    @Label("Navigation")
+    @Category({"Selenium", "Test Framework"})
+    @Description("Page load started by the test framework")
+    public static final class Navigation extends Event {
+        @Label("URL")
+        String url;
+    }
+
+    /**
+     * Emitted for every test result reported to the {@link TestResultLogger}.
+     */
+    @Name("Utils.TestResult")
+    @Label("Test Result")
+    @Category({"Selenium", "Test Framework"})
+    @Description("Result of a finished test")
+    public static final class TestResult extends Event {
+        @Label("Test Class")
+        String testClass;
+
+        @Label("Test")
+        String test;
+
+        @Label("Status")
+        String status;
+    }
+}
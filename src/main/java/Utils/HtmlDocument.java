@@ -0,0 +1,418 @@
+package Utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The HtmlDocument class is a lenient HTML parser which turns a page fetched by the {@link HttpSessionDriver} into
+ * a tree of nodes.
+ * <p>
+ * It understands what server-rendered pages like the login page are made of: elements with attributes, text,
+ * character references, comments, void elements such as {@code <input>}, raw text elements such as
+ * {@code <script>} and unclosed or misnested end tags. Scripts are kept as text and never run.
+ * </p>
+ */
+final class HtmlDocument {
+
+    private static final Set<String> VOID_ELEMENTS = new HashSet<>(Arrays.asList(
+            "area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "source", "track", "wbr"));
+
+    private static final Set<String> RAW_TEXT_ELEMENTS = new HashSet<>(Arrays.asList(
+            "script", "style", "textarea", "title"));
+
+    /**
+     * Elements which are closed implicitly by a following sibling of the same type.
+     */
+    private static final Set<String> SELF_NESTING_CLOSED = new HashSet<>(Arrays.asList(
+            "p", "li", "option", "tr", "td", "th", "dt", "dd"));
+
+    private static final Map<String, String> ENTITIES = new HashMap<>();
+
+    static {
+        ENTITIES.put("amp", "&");
+        ENTITIES.put("lt", "<");
+        ENTITIES.put("gt", ">");
+        ENTITIES.put("quot", "\"");
+        ENTITIES.put("apos", "'");
+        ENTITIES.put("nbsp", "\u00a0");
+        ENTITIES.put("times", "\u00d7");
+        ENTITIES.put("copy", "\u00a9");
+        ENTITIES.put("reg", "\u00ae");
+        ENTITIES.put("hellip", "\u2026");
+        ENTITIES.put("mdash", "\u2014");
+        ENTITIES.put("ndash", "\u2013");
+    }
+
+    private final String url;
+    private final String source;
+    private final Node root = new Node("#document", null);
+
+    /**
+     * A node of the document: an element with a tag name and attributes, or a text node.
+     */
+    static final class Node {
+        private final String tag;
+        private final String text;
+        private final Map<String, String> attributes = new LinkedHashMap<>();
+        private final List<Node> children = new ArrayList<>();
+        private Node parent;
+
+        private Node(String tag, String text) {
+            this.tag = tag;
+            this.text = text;
+        }
+
+        String getTag() {
+            return tag;
+        }
+
+        boolean isText() {
+            return tag == null;
+        }
+
+        String getText() {
+            return text;
+        }
+
+        Node getParent() {
+            return parent;
+        }
+
+        List<Node> getChildren() {
+            return children;
+        }
+
+        String getAttribute(String name) {
+            return attributes.get(name.toLowerCase(Locale.ROOT));
+        }
+
+        boolean hasAttribute(String name) {
+            return attributes.containsKey(name.toLowerCase(Locale.ROOT));
+        }
+
+        void setAttribute(String name, String value) {
+            attributes.put(name.toLowerCase(Locale.ROOT), value);
+        }
+
+        void removeAttribute(String name) {
+            attributes.remove(name.toLowerCase(Locale.ROOT));
+        }
+
+        /**
+         * Method which returns the elements below this node in document order.
+         */
+        List<Node> descendants() {
+            List<Node> elements = new ArrayList<>();
+            collect(this, elements);
+            return elements;
+        }
+
+        private static void collect(Node node, List<Node> elements) {
+            for (Node child : node.children) {
+                if (!child.isText()) {
+                    elements.add(child);
+                    collect(child, elements);
+                }
+            }
+        }
+
+        /**
+         * Method which returns the nearest ancestor with the given tag name.
+         */
+        Node closest(String tagName) {
+            for (Node node = this; node != null; node = node.parent) {
+                if (tagName.equals(node.tag)) {
+                    return node;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Method which returns the concatenated text of all text nodes below this node, like {@code textContent}.
+         */
+        String textContent() {
+            if (isText()) {
+                return text;
+            }
+            StringBuilder content = new StringBuilder();
+            for (Node child : children) {
+                content.append(child.textContent());
+            }
+            return content.toString();
+        }
+
+        private void append(Node child) {
+            child.parent = this;
+            children.add(child);
+        }
+
+        @Override
+        public String toString() {
+            return isText() ? "#text" : "<" + tag + attributes + ">";
+        }
+    }
+
+    private HtmlDocument(String url, String source) {
+        this.url = url;
+        this.source = source;
+    }
+
+    /**
+     * Method which returns an empty document, as shown for {@code about:blank}.
+     *
+     * @return The empty document.
+     */
+    static HtmlDocument blank() {
+        return parse("about:blank", "");
+    }
+
+    /**
+     * Parses a page.
+     *
+     * @param url    The URL the page was loaded from.
+     * @param source The HTML source of the page.
+     * @return The parsed document.
+     */
+    static HtmlDocument parse(String url, String source) {
+        HtmlDocument document = new HtmlDocument(url, source);
+        document.build();
+        return document;
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    String getSource() {
+        return source;
+    }
+
+    Node getRoot() {
+        return root;
+    }
+
+    /**
+     * Method which returns the text of the {@code <title>} element.
+     *
+     * @return The trimmed title, or an empty string if the page has none.
+     */
+    String getTitle() {
+        for (Node node : root.descendants()) {
+            if ("title".equals(node.tag)) {
+                return node.textContent().trim();
+            }
+        }
+        return "";
+    }
+
+    private void build() {
+        List<Node> open = new ArrayList<>();
+        open.add(root);
+        int length = source.length();
+        int position = 0;
+        while (position < length) {
+            Node current = open.get(open.size() - 1);
+            int tagStart = source.indexOf('<', position);
+            if (tagStart < 0) {
+                appendText(current, source.substring(position));
+                break;
+            }
+            if (tagStart > position) {
+                appendText(current, source.substring(position, tagStart));
+            }
+            if (source.startsWith("<!--", tagStart)) {
+                int end = source.indexOf("-->", tagStart + 4);
+                position = end < 0 ? length : end + 3;
+            } else if (source.startsWith("</", tagStart)) {
+                int end = source.indexOf('>', tagStart);
+                String name = source.substring(tagStart + 2, end < 0 ? length : end).trim().toLowerCase(Locale.ROOT);
+                closeElement(open, name);
+                position = end < 0 ? length : end + 1;
+            } else if (tagStart + 1 < length && (Character.isLetter(source.charAt(tagStart + 1)))) {
+                position = openElement(open, tagStart);
+            } else if (tagStart + 1 < length && (source.charAt(tagStart + 1) == '!' || source.charAt(tagStart + 1) == '?')) {
+                int end = source.indexOf('>', tagStart);
+                position = end < 0 ? length : end + 1;
+            } else {
+                appendText(current, "<");
+                position = tagStart + 1;
+            }
+        }
+    }
+
+    /**
+     * Parses a start tag and its attributes, and the content of raw text elements.
+     *
+     * @return The position after the parsed markup.
+     */
+    private int openElement(List<Node> open, int tagStart) {
+        int length = source.length();
+        int position = tagStart + 1;
+        int nameStart = position;
+        while (position < length && !Character.isWhitespace(source.charAt(position))
+                && source.charAt(position) != '>' && source.charAt(position) != '/') {
+            position++;
+        }
+        Node element = new Node(source.substring(nameStart, position).toLowerCase(Locale.ROOT), null);
+        boolean selfClosing = false;
+        while (position < length) {
+            char c = source.charAt(position);
+            if (c == '>') {
+                position++;
+                break;
+            }
+            if (c == '/' || Character.isWhitespace(c)) {
+                selfClosing = c == '/';
+                position++;
+                continue;
+            }
+            int attributeStart = position;
+            while (position < length && "=>/ \t\r\n\f".indexOf(source.charAt(position)) < 0) {
+                position++;
+            }
+            String name = source.substring(attributeStart, position).toLowerCase(Locale.ROOT);
+            String value = "";
+            while (position < length && Character.isWhitespace(source.charAt(position))) {
+                position++;
+            }
+            if (position < length && source.charAt(position) == '=') {
+                position++;
+                while (position < length && Character.isWhitespace(source.charAt(position))) {
+                    position++;
+                }
+                if (position < length && (source.charAt(position) == '"' || source.charAt(position) == '\'')) {
+                    char quote = source.charAt(position);
+                    int end = source.indexOf(quote, position + 1);
+                    end = end < 0 ? length : end;
+                    value = decode(source.substring(position + 1, end));
+                    position = Math.min(length, end + 1);
+                } else {
+                    int valueStart = position;
+                    while (position < length && !Character.isWhitespace(source.charAt(position)) && source.charAt(position) != '>') {
+                        position++;
+                    }
+                    value = decode(source.substring(valueStart, position));
+                }
+            }
+            if (!name.isEmpty() && !element.attributes.containsKey(name)) {
+                element.attributes.put(name, value);
+            }
+        }
+
+        Node parent = open.get(open.size() - 1);
+        if (SELF_NESTING_CLOSED.contains(element.tag) && element.tag.equals(parent.tag)) {
+            open.remove(open.size() - 1);
+            parent = open.get(open.size() - 1);
+        }
+        parent.append(element);
+        if (RAW_TEXT_ELEMENTS.contains(element.tag) && !selfClosing) {
+            int end = indexOfIgnoreCase("</" + element.tag, position);
+            String content = source.substring(position, end < 0 ? length : end);
+            if (!content.isEmpty()) {
+                element.append(new Node(null, "script".equals(element.tag) || "style".equals(element.tag) ? content : decode(content)));
+            }
+            if (end < 0) {
+                return length;
+            }
+            int close = source.indexOf('>', end);
+            return close < 0 ? length : close + 1;
+        }
+        if (!selfClosing && !VOID_ELEMENTS.contains(element.tag)) {
+            open.add(element);
+        }
+        return position;
+    }
+
+    /**
+     * Closes the innermost open element with the given name and all elements opened inside it.
+     * An end tag without an open element is ignored.
+     */
+    private static void closeElement(List<Node> open, String name) {
+        for (int i = open.size() - 1; i > 0; i--) {
+            if (name.equals(open.get(i).tag)) {
+                open.subList(i, open.size()).clear();
+                return;
+            }
+        }
+    }
+
+    private static void appendText(Node parent, String raw) {
+        parent.append(new Node(null, decode(raw)));
+    }
+
+    private int indexOfIgnoreCase(String needle, int from) {
+        for (int i = from; i <= source.length() - needle.length(); i++) {
+            if (source.regionMatches(true, i, needle, 0, needle.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Replaces the character references of a text, e.g. {@code &amp;} or {@code &#215;}.
+     */
+    static String decode(String text) {
+        int ampersand = text.indexOf('&');
+        if (ampersand < 0) {
+            return text;
+        }
+        StringBuilder decoded = new StringBuilder(text.length());
+        int position = 0;
+        while (ampersand >= 0) {
+            decoded.append(text, position, ampersand);
+            int semicolon = text.indexOf(';', ampersand);
+            String replacement = null;
+            if (semicolon > ampersand + 1 && semicolon - ampersand <= 10) {
+                String reference = text.substring(ampersand + 1, semicolon);
+                try {
+                    if (reference.startsWith("#x") || reference.startsWith("#X")) {
+                        replacement = new String(Character.toChars(Integer.parseInt(reference.substring(2), 16)));
+                    } else if (reference.startsWith("#")) {
+                        replacement = new String(Character.toChars(Integer.parseInt(reference.substring(1))));
+                    } else {
+                        replacement = ENTITIES.get(reference);
+                    }
+                } catch (IllegalArgumentException e) {
+                    replacement = null;
+                }
+            }
+            if (replacement == null) {
+                decoded.append('&');
+                position = ampersand + 1;
+            } else {
+                decoded.append(replacement);
+                position = semicolon + 1;
+            }
+            ampersand = text.indexOf('&', position);
+        }
+        decoded.append(text, position, text.length());
+        return decoded.toString();
+    }
+
+    /**
+     * Method which returns the elements of the document matching a CSS selector, in document order.
+     *
+     * @param selector The CSS selector.
+     * @param scope    The node whose descendants are searched.
+     * @return The matching elements.
+     */
+    static List<Node> select(CssSelector selector, Node scope) {
+        List<Node> matches = new ArrayList<>();
+        for (Node node : scope.descendants()) {
+            if (selector.matches(node)) {
+                matches.add(node);
+            }
+        }
+        return Collections.unmodifiableList(matches);
+    }
+}
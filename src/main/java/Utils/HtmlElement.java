@@ -0,0 +1,505 @@
+package Utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.ElementNotInteractableException;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The HtmlElement class is a WebElement of a page loaded by the {@link HttpSessionDriver}.
+ * <p>
+ * The element works on a node of the parsed {@link HtmlDocument}. Typing changes the value of the node, clicking
+ * a submit button submits its form and clicking a link follows it, and {@link #getText()} approximates the rendered
+ * text of the browser: whitespace is collapsed, block elements and line breaks start a new line and hidden elements
+ * are left out. Once the driver has loaded another page, the element throws a {@link StaleElementReferenceException}
+ * like the element of a browser.
+ * </p>
+ */
+final class HtmlElement implements WebElement {
+
+    private static final Set<String> BLOCK_ELEMENTS = new HashSet<>(Arrays.asList(
+            "address", "article", "aside", "blockquote", "body", "dd", "div", "dl", "dt", "fieldset", "figcaption",
+            "figure", "footer", "form", "h1", "h2", "h3", "h4", "h5", "h6", "header", "hr", "html", "li", "main",
+            "nav", "ol", "p", "pre", "section", "table", "tr", "ul"));
+
+    private static final Set<String> NEVER_DISPLAYED = new HashSet<>(Arrays.asList(
+            "head", "script", "style", "title", "template", "noscript", "meta", "link"));
+
+    /**
+     * The parsed selectors, which are immutable and shared by all drivers.
+     */
+    private static final Map<String, CssSelector> SELECTORS = new ConcurrentHashMap<>();
+
+    private final HttpSessionDriver driver;
+    private final HtmlDocument document;
+    private final HtmlDocument.Node node;
+
+    private HtmlElement(HttpSessionDriver driver, HtmlDocument document, HtmlDocument.Node node) {
+        this.driver = driver;
+        this.document = document;
+        this.node = node;
+    }
+
+    /**
+     * Method which returns the elements matching a locator within a scope, in document order.
+     *
+     * @param driver   The driver which loaded the document.
+     * @param document The document.
+     * @param scope    The node whose descendants are searched.
+     * @param by       The locator.
+     * @return The matching elements.
+     * @throws InvalidSelectorException If the locator cannot be expressed as a CSS selector.
+     */
+    static List<WebElement> findAll(HttpSessionDriver driver, HtmlDocument document, HtmlDocument.Node scope, By by) {
+        String css = Selectors.toCss(by);
+        if (css == null) {
+            throw new InvalidSelectorException("Only CSS, id, name, class name and tag name locators are supported without a browser: " + by);
+        }
+        CssSelector selector = SELECTORS.computeIfAbsent(css, CssSelector::new);
+        List<WebElement> elements = new ArrayList<>();
+        for (HtmlDocument.Node found : HtmlDocument.select(selector, scope)) {
+            elements.add(new HtmlElement(driver, document, found));
+        }
+        return elements;
+    }
+
+    /**
+     * Method which returns the value a form control contributes to the submission of its form.
+     *
+     * @param control   The form control.
+     * @param submitter true if the control is the button which submitted the form.
+     * @return The value, or null if the control is not submitted.
+     */
+    static String submittedValue(HtmlDocument.Node control, boolean submitter) {
+        switch (control.getTag()) {
+            case "input":
+                String type = type(control);
+                switch (type) {
+                    case "submit":
+                        return submitter ? valueOrEmpty(control) : null;
+                    case "checkbox":
+                    case "radio":
+                        return control.hasAttribute("checked") ? (control.hasAttribute("value") ? control.getAttribute("value") : "on") : null;
+                    case "image":
+                    case "button":
+                    case "reset":
+                    case "file":
+                        return null;
+                    default:
+                        return valueOrEmpty(control);
+                }
+            case "button":
+                return submitter && "submit".equals(type(control)) ? valueOrEmpty(control) : null;
+            case "textarea":
+                return value(control);
+            case "select":
+                HtmlDocument.Node selected = selectedOption(control);
+                return selected == null ? null : optionValue(selected);
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public void click() {
+        ensureCurrent();
+        if (!isDisplayed()) {
+            throw new ElementNotInteractableException("Element is not displayed: " + node);
+        }
+        if (node.hasAttribute("disabled")) {
+            return;
+        }
+        String tag = node.getTag();
+        String type = type(node);
+        if ("input".equals(tag) && "checkbox".equals(type)) {
+            toggle(node, !node.hasAttribute("checked"));
+        } else if ("input".equals(tag) && "radio".equals(type)) {
+            check(node);
+        } else if ("option".equals(tag)) {
+            select(node);
+        } else if (("input".equals(tag) || "button".equals(tag)) && ("submit".equals(type) || "image".equals(type))) {
+            HtmlDocument.Node form = node.closest("form");
+            if (form != null) {
+                driver.submit(form, node);
+            }
+        } else {
+            HtmlDocument.Node link = node.closest("a");
+            HtmlDocument.Node button = node.closest("button");
+            if (link != null && link.hasAttribute("href") && !link.getAttribute("href").startsWith("#")) {
+                driver.follow(link.getAttribute("href"));
+            } else if (button != null && button != node) {
+                new HtmlElement(driver, document, button).click();
+            }
+        }
+    }
+
+    @Override
+    public void submit() {
+        ensureCurrent();
+        HtmlDocument.Node form = node.closest("form");
+        if (form == null) {
+            throw new WebDriverException("Element is not in a form: " + node);
+        }
+        driver.submit(form, null);
+    }
+
+    @Override
+    public void sendKeys(CharSequence... keysToSend) {
+        ensureCurrent();
+        if (!isTextControl()) {
+            throw new ElementNotInteractableException("Element cannot receive text: " + node);
+        }
+        StringBuilder value = new StringBuilder(value(node));
+        boolean enter = false;
+        for (CharSequence keys : keysToSend) {
+            for (int i = 0; i < keys.length(); i++) {
+                char c = keys.charAt(i);
+                if (c == Keys.ENTER.charAt(0) || c == Keys.RETURN.charAt(0)) {
+                    enter = true;
+                } else if (c == Keys.BACK_SPACE.charAt(0)) {
+                    if (value.length() > 0) {
+                        value.setLength(value.length() - 1);
+                    }
+                } else if (c < '\uE000' || c > '\uF8FF') {
+                    value.append(c);
+                }
+            }
+        }
+        node.setAttribute("value", value.toString());
+        if (enter && "input".equals(node.getTag())) {
+            submitImplicitly();
+        }
+    }
+
+    @Override
+    public void clear() {
+        ensureCurrent();
+        if (isTextControl()) {
+            node.setAttribute("value", "");
+        }
+    }
+
+    @Override
+    public String getTagName() {
+        ensureCurrent();
+        return node.getTag();
+    }
+
+    @Override
+    public String getAttribute(String name) {
+        String property = getDomProperty(name);
+        return property != null ? property : getDomAttribute(name);
+    }
+
+    @Override
+    public String getDomAttribute(String name) {
+        ensureCurrent();
+        return node.getAttribute(name);
+    }
+
+    @Override
+    public String getDomProperty(String name) {
+        ensureCurrent();
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "value":
+                return "select".equals(node.getTag()) ? submittedValue(node, false) : value(node);
+            case "checked":
+            case "selected":
+            case "disabled":
+                return node.hasAttribute(name) ? "true" : null;
+            case "innertext":
+                return getText();
+            case "textcontent":
+                return node.textContent();
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public boolean isSelected() {
+        ensureCurrent();
+        return node.hasAttribute("checked") || node.hasAttribute("selected");
+    }
+
+    @Override
+    public boolean isEnabled() {
+        ensureCurrent();
+        return !node.hasAttribute("disabled");
+    }
+
+    @Override
+    public String getText() {
+        ensureCurrent();
+        if (!isDisplayed()) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        render(node, text);
+        StringBuilder lines = new StringBuilder();
+        for (String line : text.toString().split("\n")) {
+            String collapsed = line.replaceAll("[ \\t\\r\\f]+", " ").trim();
+            if (!collapsed.isEmpty()) {
+                if (lines.length() > 0) {
+                    lines.append('\n');
+                }
+                lines.append(collapsed);
+            }
+        }
+        return lines.toString();
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        ensureCurrent();
+        return findAll(driver, document, node, by);
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        List<WebElement> found = findElements(by);
+        if (found.isEmpty()) {
+            throw new NoSuchElementException("Unable to locate element: " + by);
+        }
+        return found.get(0);
+    }
+
+    @Override
+    public boolean isDisplayed() {
+        ensureCurrent();
+        for (HtmlDocument.Node current = node; current != null; current = current.getParent()) {
+            if (!isRendered(current)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Point getLocation() {
+        throw noLayout();
+    }
+
+    @Override
+    public Dimension getSize() {
+        throw noLayout();
+    }
+
+    @Override
+    public Rectangle getRect() {
+        throw noLayout();
+    }
+
+    @Override
+    public String getCssValue(String propertyName) {
+        throw noLayout();
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        throw new UnsupportedCommandException("Screenshots cannot be taken without a browser.");
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof HtmlElement && ((HtmlElement) other).node == node;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(node);
+    }
+
+    @Override
+    public String toString() {
+        return "[HtmlElement " + node + "]";
+    }
+
+    private void ensureCurrent() {
+        if (driver.document() != document) {
+            throw new StaleElementReferenceException("The page of the element has been unloaded: " + node);
+        }
+    }
+
+    private boolean isTextControl() {
+        if ("textarea".equals(node.getTag())) {
+            return true;
+        }
+        if (!"input".equals(node.getTag())) {
+            return false;
+        }
+        switch (type(node)) {
+            case "checkbox":
+            case "radio":
+            case "submit":
+            case "image":
+            case "button":
+            case "reset":
+            case "file":
+            case "hidden":
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Submits the form of a text field when Enter is pressed, with its first submit button as the submitter.
+     */
+    private void submitImplicitly() {
+        HtmlDocument.Node form = node.closest("form");
+        if (form == null) {
+            return;
+        }
+        for (HtmlDocument.Node control : form.descendants()) {
+            String tag = control.getTag();
+            if (("button".equals(tag) || "input".equals(tag)) && "submit".equals(type(control))) {
+                if (!control.hasAttribute("disabled")) {
+                    driver.submit(form, control);
+                }
+                return;
+            }
+        }
+        driver.submit(form, null);
+    }
+
+    private void check(HtmlDocument.Node radio) {
+        HtmlDocument.Node form = radio.closest("form");
+        String name = radio.getAttribute("name");
+        if (form != null && name != null) {
+            for (HtmlDocument.Node control : form.descendants()) {
+                if ("radio".equals(type(control)) && name.equals(control.getAttribute("name"))) {
+                    toggle(control, false);
+                }
+            }
+        }
+        toggle(radio, true);
+    }
+
+    private void select(HtmlDocument.Node option) {
+        HtmlDocument.Node select = option.closest("select");
+        if (select != null && !select.hasAttribute("multiple")) {
+            for (HtmlDocument.Node other : select.descendants()) {
+                if ("option".equals(other.getTag())) {
+                    other.removeAttribute("selected");
+                }
+            }
+            option.setAttribute("selected", "");
+        } else {
+            toggleAttribute(option, "selected", !option.hasAttribute("selected"));
+        }
+    }
+
+    private static void toggle(HtmlDocument.Node control, boolean checked) {
+        toggleAttribute(control, "checked", checked);
+    }
+
+    private static void toggleAttribute(HtmlDocument.Node control, String name, boolean on) {
+        if (on) {
+            control.setAttribute(name, "");
+        } else {
+            control.removeAttribute(name);
+        }
+    }
+
+    private static void render(HtmlDocument.Node current, StringBuilder text) {
+        if (current.isText()) {
+            text.append(current.getText().replace('\n', ' '));
+            return;
+        }
+        if (!isRendered(current)) {
+            return;
+        }
+        String tag = current.getTag();
+        if ("br".equals(tag)) {
+            text.append('\n');
+            return;
+        }
+        boolean block = BLOCK_ELEMENTS.contains(tag);
+        if (block) {
+            text.append('\n');
+        }
+        for (HtmlDocument.Node child : current.getChildren()) {
+            render(child, text);
+        }
+        if (block) {
+            text.append('\n');
+        } else if ("td".equals(tag) || "th".equals(tag)) {
+            text.append(' ');
+        }
+    }
+
+    private static boolean isRendered(HtmlDocument.Node element) {
+        if (element.isText() || element.getTag().startsWith("#")) {
+            return true;
+        }
+        if (NEVER_DISPLAYED.contains(element.getTag()) || element.hasAttribute("hidden")
+                || "input".equals(element.getTag()) && "hidden".equals(type(element))) {
+            return false;
+        }
+        String style = element.getAttribute("style");
+        return style == null || !style.replaceAll("\\s+", "").toLowerCase(Locale.ROOT).contains("display:none");
+    }
+
+    private static String type(HtmlDocument.Node control) {
+        String type = control.getAttribute("type");
+        if (type == null || type.isEmpty()) {
+            return "button".equals(control.getTag()) ? "submit" : "text";
+        }
+        return type.toLowerCase(Locale.ROOT);
+    }
+
+    private static String value(HtmlDocument.Node control) {
+        if ("textarea".equals(control.getTag()) && !control.hasAttribute("value")) {
+            return control.textContent();
+        }
+        return valueOrEmpty(control);
+    }
+
+    private static String valueOrEmpty(HtmlDocument.Node control) {
+        String value = control.getAttribute("value");
+        return value == null ? "" : value;
+    }
+
+    private static HtmlDocument.Node selectedOption(HtmlDocument.Node select) {
+        HtmlDocument.Node first = null;
+        for (HtmlDocument.Node option : select.descendants()) {
+            if ("option".equals(option.getTag())) {
+                if (option.hasAttribute("selected")) {
+                    return option;
+                }
+                if (first == null) {
+                    first = option;
+                }
+            }
+        }
+        return first;
+    }
+
+    private static String optionValue(HtmlDocument.Node option) {
+        String value = option.getAttribute("value");
+        return value != null ? value : option.textContent().replaceAll("\\s+", " ").trim();
+    }
+
+    private static UnsupportedCommandException noLayout() {
+        return new UnsupportedCommandException("Layout is not available without a browser.");
+    }
+}
@@ -0,0 +1,737 @@
+package Utils;
+
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.ImmutableCapabilities;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.logging.Logs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.CookieManager;
+import java.net.CookiePolicy;
+import java.net.HttpCookie;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * The HttpSessionDriver class is a WebDriver which works on the protocol level instead of driving a browser.
+ * <p>
+ * Pages are fetched over HTTP, parsed into an {@link HtmlDocument} and queried with CSS selectors, so the page
+ * objects run unchanged: {@link Base#type(String, org.openqa.selenium.By)} fills in the value of a field,
+ * {@link Base#click(org.openqa.selenium.By)} submits forms and follows links and {@link Base#getText(org.openqa.selenium.By)}
+ * returns the rendered text of an element. Redirects are followed and the cookies of the session are kept in a
+ * cookie jar of the driver, like a browser does.
+ * </p>
+ * <p>
+ * The driver is selected with {@code -Dbrowser=http}. It does not execute JavaScript and does not implement
+ * {@link org.openqa.selenium.JavascriptExecutor}, so batched steps and {@link DomWait} fall back to single commands
+ * and polling. Only CSS, id, name, class name and tag name locators are supported, XPath locators are rejected with
+ * an {@link InvalidSelectorException}. Layout, screenshots, frames, alerts and additional windows are not supported.
+ * </p>
+ * <p>
+ * A session needs a few kilobytes instead of a browser process, so flows which do not depend on JavaScript
+ * can run many sessions per core. A driver is used by one test at a time and is not thread-safe.
+ * </p>
+ * <p>
+ * Requests go through {@link #exchange(String, URI, Map, String)}, which the {@link StubWebDriver} overrides
+ * to answer them from scripted pages in memory.
+ * </p>
+ */
+public class HttpSessionDriver implements WebDriver, HasCapabilities {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger();
+
+    /**
+     * The name of the browser reported in the capabilities of the driver.
+     */
+    public static final String BROWSER_NAME = "http";
+
+    private static final String BLANK = "about:blank";
+    private static final int MAX_REDIRECTS = 20;
+    private static final AtomicInteger SESSIONS = new AtomicInteger();
+
+    private final CookieManager cookies = new CookieManager(null, CookiePolicy.ACCEPT_ALL);
+    private final String windowHandle = "http-session-" + SESSIONS.incrementAndGet();
+    private final List<String> history = new ArrayList<>();
+    private final HttpTimeouts timeouts = new HttpTimeouts();
+    private int historyIndex = -1;
+    private HtmlDocument document = HtmlDocument.blank();
+    private long lastLoadMillis = -1;
+    private boolean closed;
+
+    /**
+     * Method which returns the name of the browser reported in the capabilities of the driver.
+     *
+     * @return The browser name.
+     */
+    String browserName() {
+        return BROWSER_NAME;
+    }
+
+    /**
+     * Method which returns the document of the current page.
+     *
+     * @return The current document.
+     */
+    HtmlDocument document() {
+        ensureOpen();
+        return document;
+    }
+
+    /**
+     * Method which returns the time it took to load the current page, including redirects.
+     *
+     * @return The load time in milliseconds, or -1 if no page has been loaded over HTTP.
+     */
+    public long getLastLoadMillis() {
+        return lastLoadMillis;
+    }
+
+    @Override
+    public void get(String url) {
+        load("GET", url, null);
+        visited();
+    }
+
+    @Override
+    public String getCurrentUrl() {
+        return document().getUrl();
+    }
+
+    @Override
+    public String getTitle() {
+        return document().getTitle();
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return HtmlElement.findAll(this, document(), document().getRoot(), by);
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        List<WebElement> found = findElements(by);
+        if (found.isEmpty()) {
+            throw new NoSuchElementException("Unable to locate element: " + by);
+        }
+        return found.get(0);
+    }
+
+    @Override
+    public String getPageSource() {
+        return document().getSource();
+    }
+
+    @Override
+    public void close() {
+        quit();
+    }
+
+    @Override
+    public void quit() {
+        closed = true;
+        cookies.getCookieStore().removeAll();
+        document = HtmlDocument.blank();
+    }
+
+    @Override
+    public Set<String> getWindowHandles() {
+        ensureOpen();
+        return Collections.singleton(windowHandle);
+    }
+
+    @Override
+    public String getWindowHandle() {
+        ensureOpen();
+        return windowHandle;
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        return new HttpTargetLocator();
+    }
+
+    @Override
+    public Navigation navigate() {
+        return new HttpNavigation();
+    }
+
+    @Override
+    public Options manage() {
+        return new HttpOptions();
+    }
+
+    @Override
+    public Capabilities getCapabilities() {
+        return new ImmutableCapabilities("browserName", browserName(), "javascriptEnabled", false);
+    }
+
+    /**
+     * Method which submits a form like a browser does, with the values of its successful controls
+     * encoded as {@code application/x-www-form-urlencoded}.
+     *
+     * @param form      The form element.
+     * @param submitter The button which submitted the form, or null.
+     */
+    void submit(HtmlDocument.Node form, HtmlDocument.Node submitter) {
+        StringBuilder body = new StringBuilder();
+        for (HtmlDocument.Node control : form.descendants()) {
+            String name = control.getAttribute("name");
+            if (name == null || name.isEmpty() || control.hasAttribute("disabled")) {
+                continue;
+            }
+            String value = HtmlElement.submittedValue(control, control == submitter);
+            if (value != null) {
+                if (body.length() > 0) {
+                    body.append('&');
+                }
+                body.append(encode(name)).append('=').append(encode(value));
+            }
+        }
+        String action = form.getAttribute("action");
+        if (submitter != null && submitter.hasAttribute("formaction")) {
+            action = submitter.getAttribute("formaction");
+        }
+        String target = resolve(action == null || action.isEmpty() ? document.getUrl() : action);
+        String method = form.getAttribute("method");
+        if (method != null && method.equalsIgnoreCase("post")) {
+            load("POST", target, body.toString());
+        } else {
+            int query = target.indexOf('?');
+            int fragment = target.indexOf('#');
+            String base = target.substring(0, query >= 0 ? query : fragment >= 0 ? fragment : target.length());
+            load("GET", body.length() == 0 ? base : base + "?" + body, null);
+        }
+        visited();
+    }
+
+    /**
+     * Method which follows a link of the current page.
+     *
+     * @param href The reference of the link, relative to the current page.
+     */
+    void follow(String href) {
+        String target = resolve(href);
+        if (!target.startsWith("javascript:")) {
+            get(target);
+        }
+    }
+
+    /**
+     * Method which loads a page, following redirects, and makes it the current document.
+     * Responses with an error status are shown like a browser shows them.
+     */
+    private void load(String method, String url, String body) {
+        ensureOpen();
+        if (BLANK.equals(url)) {
+            document = HtmlDocument.blank();
+            return;
+        }
+        long start = System.nanoTime();
+        String current = url;
+        for (int redirects = 0; ; redirects++) {
+            URI uri = toUri(current);
+            Reply reply;
+            try {
+                reply = exchange(method, uri, cookieHeaders(uri), body);
+                cookies.put(uri, reply.headers);
+            } catch (SocketTimeoutException e) {
+                throw new TimeoutException("Timed out loading " + current, e);
+            } catch (IOException e) {
+                throw new WebDriverException("Unable to load " + current, e);
+            }
+            int status = reply.status;
+            String location = reply.getHeader("Location");
+            if (status >= 300 && status < 400 && location != null) {
+                if (redirects >= MAX_REDIRECTS) {
+                    throw new WebDriverException("Too many redirects loading " + url);
+                }
+                current = uri.resolve(location.trim()).toString();
+                if (status != 307 && status != 308) {
+                    method = "GET";
+                    body = null;
+                }
+                continue;
+            }
+            document = HtmlDocument.parse(current, reply.body);
+            lastLoadMillis = (System.nanoTime() - start) / 1_000_000;
+            String request = method + " " + current;
+            LOGGER.fine(() -> request + " returned " + status + " in " + lastLoadMillis + " ms");
+            return;
+        }
+    }
+
+    /**
+     * Method which sends one request over HTTP and returns the response, without following redirects.
+     * The body of a redirect is not read.
+     *
+     * @param method  The request method.
+     * @param uri     The URI of the request.
+     * @param headers The request headers, e.g. the cookies of the session.
+     * @param body    The form data of a POST request, or null.
+     * @return The response.
+     * @throws IOException If the request fails.
+     */
+    Reply exchange(String method, URI uri, Map<String, List<String>> headers, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        connection.setInstanceFollowRedirects(false);
+        connection.setRequestMethod(method);
+        int timeout = (int) Math.min(Integer.MAX_VALUE, timeouts.pageLoad.toMillis());
+        connection.setConnectTimeout(timeout);
+        connection.setReadTimeout(timeout);
+        connection.setRequestProperty("Accept", "text/html,application/xhtml+xml,*/*;q=0.8");
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            for (String value : header.getValue()) {
+                connection.addRequestProperty(header.getKey(), value);
+            }
+        }
+        if (body != null) {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+            connection.setFixedLengthStreamingMode(bytes.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(bytes);
+            }
+        }
+        int status = connection.getResponseCode();
+        Reply reply = new Reply(status, connection.getHeaderFields(), "");
+        if (status >= 300 && status < 400 && reply.getHeader("Location") != null) {
+            connection.disconnect();
+            return reply;
+        }
+        return new Reply(status, reply.headers, read(connection, status));
+    }
+
+    /**
+     * Method which reads the body of a response. A read which exceeds the page load timeout throws a
+     * {@link SocketTimeoutException}, which {@link #load(String, String, String)} reports as a {@link TimeoutException}.
+     */
+    private static String read(HttpURLConnection connection, int status) throws IOException {
+        try (InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream()) {
+            if (in == null) {
+                return "";
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                bytes.write(buffer, 0, read);
+            }
+            return new String(bytes.toByteArray(), charset(connection.getContentType()));
+        }
+    }
+
+    private static Charset charset(String contentType) {
+        if (contentType != null) {
+            for (String parameter : contentType.split(";")) {
+                String trimmed = parameter.trim();
+                if (trimmed.toLowerCase(Locale.ROOT).startsWith("charset=")) {
+                    try {
+                        return Charset.forName(trimmed.substring(8).replace("\"", ""));
+                    } catch (IllegalArgumentException e) {
+                        break;
+                    }
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private void visited() {
+        while (history.size() > historyIndex + 1) {
+            history.remove(history.size() - 1);
+        }
+        history.add(document.getUrl());
+        historyIndex = history.size() - 1;
+    }
+
+    private String resolve(String reference) {
+        String base = document.getUrl();
+        if (BLANK.equals(base)) {
+            return reference;
+        }
+        return toUri(base).resolve(reference.trim().replace(" ", "%20")).toString();
+    }
+
+    private static URI toUri(String url) {
+        try {
+            URI uri = new URI(url);
+            if (!"http".equalsIgnoreCase(uri.getScheme()) && !"https".equalsIgnoreCase(uri.getScheme())) {
+                throw new WebDriverException("Only http and https URLs can be loaded without a browser: " + url);
+            }
+            return uri;
+        } catch (URISyntaxException e) {
+            throw new WebDriverException("Invalid URL: " + url, e);
+        }
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new NoSuchWindowException("The session has been closed.");
+        }
+    }
+
+    /**
+     * Converts a cookie of the jar into a Selenium cookie.
+     */
+    private static Cookie toCookie(HttpCookie cookie) {
+        Date expiry = cookie.getMaxAge() >= 0 ? new Date(System.currentTimeMillis() + cookie.getMaxAge() * 1000) : null;
+        return new Cookie.Builder(cookie.getName(), cookie.getValue())
+                .domain(cookie.getDomain())
+                .path(cookie.getPath() == null ? "/" : cookie.getPath())
+                .expiresOn(expiry)
+                .isSecure(cookie.getSecure())
+                .isHttpOnly(cookie.isHttpOnly())
+                .build();
+    }
+
+    private List<HttpCookie> visibleCookies() {
+        if (BLANK.equals(document().getUrl())) {
+            return Collections.emptyList();
+        }
+        return cookiesFor(toUri(document.getUrl()));
+    }
+
+    /**
+     * Method which returns the cookies of the jar which are sent with a request, the ones with the longest path first.
+     */
+    private List<HttpCookie> cookiesFor(URI uri) {
+        List<HttpCookie> sent = new ArrayList<>();
+        String path = uri.getPath() == null || uri.getPath().isEmpty() ? "/" : uri.getPath();
+        for (HttpCookie cookie : cookies.getCookieStore().get(uri)) {
+            if (pathMatches(path, cookie.getPath() == null ? "/" : cookie.getPath())
+                    && (!cookie.getSecure() || "https".equalsIgnoreCase(uri.getScheme()))) {
+                sent.add(cookie);
+            }
+        }
+        sent.sort((first, second) -> Integer.compare(second.getPath() == null ? 1 : second.getPath().length(),
+                first.getPath() == null ? 1 : first.getPath().length()));
+        return sent;
+    }
+
+    /**
+     * Method which returns the Cookie header of a request.
+     */
+    private Map<String, List<String>> cookieHeaders(URI uri) {
+        List<String> pairs = new ArrayList<>();
+        for (HttpCookie cookie : cookiesFor(uri)) {
+            pairs.add(cookie.getName() + "=" + cookie.getValue());
+        }
+        return pairs.isEmpty() ? Collections.emptyMap()
+                : Collections.singletonMap("Cookie", Collections.singletonList(String.join("; ", pairs)));
+    }
+
+    /**
+     * Checks if a request path is within the path of a cookie. Like in a browser, the path of the cookie has to
+     * match whole segments: {@code /app} matches {@code /app} and {@code /app/page}, but not {@code /application}.
+     */
+    static boolean pathMatches(String path, String cookiePath) {
+        if (!path.startsWith(cookiePath)) {
+            return false;
+        }
+        return path.length() == cookiePath.length() || cookiePath.endsWith("/") || path.charAt(cookiePath.length()) == '/';
+    }
+
+    /**
+     * A response to one request: the status, the response headers and the page.
+     */
+    static final class Reply {
+        private final int status;
+        private final Map<String, List<String>> headers;
+        private final String body;
+
+        Reply(int status, Map<String, List<String>> headers, String body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        String getHeader(String name) {
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                if (name.equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+                    return header.getValue().get(0);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The options of the driver, which manage the cookies of the current page.
+     */
+    private final class HttpOptions implements Options {
+
+        @Override
+        public void addCookie(Cookie cookie) {
+            if (BLANK.equals(document().getUrl())) {
+                throw new WebDriverException("Cookies cannot be added before a page has been loaded.");
+            }
+            URI uri = toUri(document.getUrl());
+            HttpCookie httpCookie = new HttpCookie(cookie.getName(), cookie.getValue());
+            httpCookie.setPath(cookie.getPath() == null ? "/" : cookie.getPath());
+            httpCookie.setDomain(cookie.getDomain() == null ? uri.getHost() : cookie.getDomain());
+            httpCookie.setSecure(cookie.isSecure());
+            httpCookie.setHttpOnly(cookie.isHttpOnly());
+            httpCookie.setVersion(0);
+            if (cookie.getExpiry() != null) {
+                httpCookie.setMaxAge(Math.max(0, (cookie.getExpiry().getTime() - System.currentTimeMillis()) / 1000));
+            }
+            cookies.getCookieStore().add(uri, httpCookie);
+        }
+
+        @Override
+        public void deleteCookieNamed(String name) {
+            for (HttpCookie cookie : visibleCookies()) {
+                if (cookie.getName().equals(name)) {
+                    remove(cookie);
+                }
+            }
+        }
+
+        @Override
+        public void deleteCookie(Cookie cookie) {
+            deleteCookieNamed(cookie.getName());
+        }
+
+        @Override
+        public void deleteAllCookies() {
+            for (HttpCookie cookie : visibleCookies()) {
+                remove(cookie);
+            }
+        }
+
+        @Override
+        public Set<Cookie> getCookies() {
+            Set<Cookie> result = new LinkedHashSet<>();
+            for (HttpCookie cookie : visibleCookies()) {
+                result.add(toCookie(cookie));
+            }
+            return result;
+        }
+
+        @Override
+        public Cookie getCookieNamed(String name) {
+            for (HttpCookie cookie : visibleCookies()) {
+                if (cookie.getName().equals(name)) {
+                    return toCookie(cookie);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Timeouts timeouts() {
+            return timeouts;
+        }
+
+        @Override
+        public Window window() {
+            throw new UnsupportedCommandException("Windows cannot be managed without a browser.");
+        }
+
+        @Override
+        public Logs logs() {
+            throw new UnsupportedCommandException("Logs are not available without a browser.");
+        }
+
+        private void remove(HttpCookie cookie) {
+            for (URI uri : new HashSet<>(cookies.getCookieStore().getURIs())) {
+                cookies.getCookieStore().remove(uri, cookie);
+            }
+            cookies.getCookieStore().remove(null, cookie);
+        }
+    }
+
+    /**
+     * The timeouts of the driver. Only the page load timeout is used, as the read timeout of every request.
+     * Elements are looked up in the parsed document at once, so the implicit wait is kept but has no effect.
+     */
+    private static final class HttpTimeouts implements Timeouts {
+
+        private Duration implicitWait = Duration.ZERO;
+        private Duration script = Duration.ofSeconds(30);
+        private Duration pageLoad = Duration.ofSeconds(30);
+
+        @Override
+        @Deprecated
+        public Timeouts implicitlyWait(long time, java.util.concurrent.TimeUnit unit) {
+            return implicitlyWait(Duration.ofMillis(unit.toMillis(time)));
+        }
+
+        @Override
+        public Timeouts implicitlyWait(Duration duration) {
+            implicitWait = duration;
+            return this;
+        }
+
+        @Override
+        public Duration getImplicitWaitTimeout() {
+            return implicitWait;
+        }
+
+        @Override
+        @Deprecated
+        public Timeouts setScriptTimeout(long time, java.util.concurrent.TimeUnit unit) {
+            return scriptTimeout(Duration.ofMillis(unit.toMillis(time)));
+        }
+
+        @Override
+        public Timeouts scriptTimeout(Duration duration) {
+            script = duration;
+            return this;
+        }
+
+        @Override
+        public Duration getScriptTimeout() {
+            return script;
+        }
+
+        @Override
+        @Deprecated
+        public Timeouts pageLoadTimeout(long time, java.util.concurrent.TimeUnit unit) {
+            return pageLoadTimeout(Duration.ofMillis(unit.toMillis(time)));
+        }
+
+        @Override
+        public Timeouts pageLoadTimeout(Duration duration) {
+            pageLoad = duration;
+            return this;
+        }
+
+        @Override
+        public Duration getPageLoadTimeout() {
+            return pageLoad;
+        }
+    }
+
+    /**
+     * The history of the driver.
+     */
+    private final class HttpNavigation implements Navigation {
+
+        @Override
+        public void back() {
+            if (historyIndex > 0) {
+                historyIndex--;
+                load("GET", history.get(historyIndex), null);
+            }
+        }
+
+        @Override
+        public void forward() {
+            if (historyIndex < history.size() - 1) {
+                historyIndex++;
+                load("GET", history.get(historyIndex), null);
+            }
+        }
+
+        @Override
+        public void to(String url) {
+            get(url);
+        }
+
+        @Override
+        public void to(URL url) {
+            get(url.toString());
+        }
+
+        @Override
+        public void refresh() {
+            load("GET", document().getUrl(), null);
+        }
+    }
+
+    /**
+     * The driver has a single window without frames, so only switching to that window is supported.
+     */
+    private final class HttpTargetLocator implements TargetLocator {
+
+        @Override
+        public WebDriver frame(int index) {
+            throw new UnsupportedCommandException("Frames are not supported without a browser.");
+        }
+
+        @Override
+        public WebDriver frame(String nameOrId) {
+            throw new UnsupportedCommandException("Frames are not supported without a browser.");
+        }
+
+        @Override
+        public WebDriver frame(WebElement frameElement) {
+            throw new UnsupportedCommandException("Frames are not supported without a browser.");
+        }
+
+        @Override
+        public WebDriver parentFrame() {
+            return HttpSessionDriver.this;
+        }
+
+        @Override
+        public WebDriver window(String nameOrHandle) {
+            if (!windowHandle.equals(nameOrHandle)) {
+                throw new NoSuchWindowException("No window with handle: " + nameOrHandle);
+            }
+            return HttpSessionDriver.this;
+        }
+
+        @Override
+        public WebDriver newWindow(WindowType typeHint) {
+            throw new UnsupportedCommandException("New windows are not supported without a browser.");
+        }
+
+        @Override
+        public WebDriver defaultContent() {
+            return HttpSessionDriver.this;
+        }
+
+        @Override
+        public WebElement activeElement() {
+            return findElement(By.tagName("body"));
+        }
+
+        @Override
+        public Alert alert() {
+            throw new UnsupportedCommandException("Alerts are not supported without a browser.");
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package Utils;
+
+import org.openqa.selenium.By;
+
+/**
+ * The Interaction class describes one step of a batched form interaction executed with {@link Base#perform(java.util.List)}.
+ * <p>
+ * A step is made of a locator, an action and an optional value. Steps are executed inside the browser in a
+ * single script call, unless they are marked with {@link #withNativeEvents()}, in which case they are executed
+ * with regular WebDriver commands which produce real key and mouse events.
+ * </p>
+ *
+ * Example usage:
+ * <pre>{@code
+ * perform(Arrays.asList(
+ *         Interaction.type(Locator.usernameField, "tomsmith"),
+ *         Interaction.type(Locator.passwordField, "SuperSecretPassword!"),
+ *         Interaction.click(Locator.loginButton)));
+ * }</pre>
+ */
+public final class Interaction {
+
+    /**
+     * Enum representing the actions which can be batched.
+     */
+    public enum Action {
+        TYPE, CLICK, GET_TEXT
+    }
+
+    private final By locator;
+    private final Action action;
+    private final String value;
+    private final boolean nativeEvents;
+
+    private Interaction(By locator, Action action, String value, boolean nativeEvents) {
+        this.locator = locator;
+        this.action = action;
+        this.value = value;
+        this.nativeEvents = nativeEvents;
+    }
+
+    /**
+     * Creates a step which enters text into an input field.
+     *
+     * @param locator The locator of the input field.
+     * @param value   The text to be entered.
+     * @return The new step.
+     */
+    public static Interaction type(By locator, String value) {
+        return new Interaction(locator, Action.TYPE, value, false);
+    }
+
+    /**
+     * Creates a step which clicks on an element.
+     *
+     * @param locator The locator of the element.
+     * @return The new step.
+     */
+    public static Interaction click(By locator) {
+        return new Interaction(locator, Action.CLICK, null, false);
+    }
+
+    /**
+     * Creates a step which retrieves the text content of an element.
+     *
+     * @param locator The locator of the element.
+     * @return The new step.
+     */
+    public static Interaction getText(By locator) {
+        return new Interaction(locator, Action.GET_TEXT, null, false);
+    }
+
+    /**
+     * Returns a copy of this step which is executed with regular WebDriver commands instead of inside the batch script.
+     * It is needed where the page reacts to real key or mouse events only.
+     *
+     * @return The step executed with native events.
+     */
+    public Interaction withNativeEvents() {
+        return new Interaction(locator, action, value, true);
+    }
+
+    public By getLocator() {
+        return locator;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public boolean isNativeEvents() {
+        return nativeEvents;
+    }
+
+    /**
+     * Describes the step for logs and error messages. The typed value is masked, since it may be a password.
+     *
+     * @return The action, the locator and the length of the value.
+     */
+    @Override
+    public String toString() {
+        return action + " " + locator + (value == null ? "" : " (" + value.length() + " characters)");
+    }
+}
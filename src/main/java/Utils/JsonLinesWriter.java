@@ -0,0 +1,260 @@
+package Utils;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonOutput;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * The JsonLinesWriter class streams records to a file with one JSON document per line.
+ * <p>
+ * Callers only put the record into a bounded buffer and return. A background thread takes the records out in
+ * batches, serializes them and flushes the file once per batch, so the file can be followed while the run is in
+ * progress and is up to date whenever the buffer runs empty.
+ * </p>
+ * <p>
+ * When the buffer is full, callers wait for free space. What happens when there is none depends on the
+ * {@link Overflow} of the writer: a {@link Overflow#BLOCK} writer, the default for files which are the record of
+ * the run such as the test results, waits as long as its thread is writing and never loses a record. It fails
+ * loudly with an {@link IllegalStateException} instead, e.g. when a record is written after {@link #close()}.
+ * A {@link Overflow#DROP} writer, for streams where a gap is acceptable, waits for a short time and then drops
+ * the record. The number of dropped and delayed records is reported when the writer is closed.
+ * </p>
+ */
+public final class JsonLinesWriter implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger();
+
+    private static final Json JSON = new Json();
+
+    /**
+     * The number of records the buffer holds unless another capacity is given.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * How long callers wait for free space in a full buffer.
+     */
+    private static final long BACKPRESSURE_MILLIS = 1000;
+
+    /**
+     * What a writer does with a record while its buffer is full.
+     */
+    public enum Overflow {
+        /**
+         * Wait until the record fits, no record is lost.
+         */
+        BLOCK,
+        /**
+         * Wait for a short time, then drop and count the record.
+         */
+        DROP
+    }
+
+    private final Path file;
+    private final Overflow overflow;
+    private final BufferedWriter writer;
+    private final BlockingQueue<Object> buffer;
+    private final Thread thread;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder delayed = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new writer with a buffer of {@link #DEFAULT_CAPACITY} records which replaces the content of the
+     * given file and never drops a record.
+     *
+     * @param file The file to write to. Missing parent directories are created.
+     * @throws IOException If the file cannot be opened.
+     */
+    public JsonLinesWriter(Path file) throws IOException {
+        this(file, DEFAULT_CAPACITY, Overflow.BLOCK);
+    }
+
+    /**
+     * Constructs a new writer which replaces the content of the given file and starts its background thread.
+     *
+     * @param file     The file to write to. Missing parent directories are created.
+     * @param capacity The number of records the buffer can hold.
+     * @param overflow What happens to a record while the buffer is full.
+     * @throws IOException If the file cannot be opened.
+     */
+    public JsonLinesWriter(Path file, int capacity, Overflow overflow) throws IOException {
+        this.file = file;
+        this.overflow = overflow;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.thread = new Thread(this::drain, "jsonl-writer-" + file.getFileName());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Puts a record into the buffer to be written as one line.
+     * <p>
+     * If the buffer is full, the caller waits for free space. A {@link Overflow#BLOCK} writer waits as long as its
+     * thread is writing, a {@link Overflow#DROP} writer drops and counts a record which does not fit in time or which
+     * is written after the writer has been closed.
+     * </p>
+     *
+     * @param record The record, e.g. a map, which can be serialized with Selenium's {@link Json}.
+     * @return true if the record has been put into the buffer, false if it has been dropped.
+     * @throws IllegalStateException If a {@link Overflow#BLOCK} writer cannot take the record because it is closed,
+     *                               its thread has stopped or the caller is interrupted.
+     */
+    public boolean write(Object record) {
+        if (closed) {
+            return drop("Record written after " + file + " was closed.");
+        }
+        if (buffer.offer(record)) {
+            return true;
+        }
+        delayed.increment();
+        try {
+            while (!buffer.offer(record, BACKPRESSURE_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (overflow == Overflow.DROP) {
+                    return drop(null);
+                }
+                if (closed || !thread.isAlive()) {
+                    return drop("The writer of " + file + " has stopped while the buffer was full.");
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return drop("Interrupted while waiting for free space in the buffer of " + file + ".");
+        }
+    }
+
+    /**
+     * Drops a record which cannot be written, or fails if the writer must not lose records.
+     *
+     * @param reason The reason, logged as a warning when the record is dropped, or null to only count it.
+     * @return false.
+     */
+    private boolean drop(String reason) {
+        if (overflow == Overflow.BLOCK) {
+            throw new IllegalStateException(reason);
+        }
+        dropped.increment();
+        if (reason != null) {
+            LOGGER.warning(() -> reason + " Record dropped.");
+        }
+        return false;
+    }
+
+    /**
+     * Takes records out of the buffer in batches and writes them until the writer is closed.
+     */
+    private void drain() {
+        List<Object> batch = new ArrayList<>(BATCH_SIZE);
+        while (!closed || !buffer.isEmpty()) {
+            try {
+                Object first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, BATCH_SIZE - 1);
+                write(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // closing, write what is left
+                closed = true;
+            }
+        }
+    }
+
+    /**
+     * Serializes and writes a batch. It is synchronized because {@link #close()} writes the late records.
+     * A record which cannot be serialized is logged and left out, so it does not stop the thread.
+     */
+    private synchronized void write(List<Object> batch) {
+        StringBuilder lines = new StringBuilder();
+        for (Object record : batch) {
+            StringBuilder line = new StringBuilder();
+            try {
+                JsonOutput output = JSON.newOutput(line);
+                output.setPrettyPrint(false);
+                output.write(record);
+            } catch (RuntimeException e) {
+                LOGGER.severe(() -> "Unable to serialize a record for " + file + ": " + e.getMessage());
+                continue;
+            }
+            lines.append(line).append(System.lineSeparator());
+        }
+        try {
+            writer.write(lines.toString());
+            writer.flush();
+        } catch (IOException e) {
+            LOGGER.warning(() -> "Unable to write to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Method which returns the number of records dropped because the buffer was full or the writer was closed.
+     *
+     * @return The dropped record count.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Method which returns the number of records which had to wait for free space in the buffer.
+     *
+     * @return The delayed record count.
+     */
+    public long getDelayedCount() {
+        return delayed.sum();
+    }
+
+    /**
+     * Writes all buffered records, closes the file and reports dropped and delayed records.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // records put into the buffer while the writer was closing, or left by a thread which did not finish in time
+        List<Object> late = new ArrayList<>();
+        buffer.drainTo(late);
+        if (!late.isEmpty()) {
+            write(late);
+        }
+        synchronized (this) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                LOGGER.warning(() -> "Unable to close " + file + ": " + e.getMessage());
+            }
+        }
+        if (dropped.sum() > 0 || delayed.sum() > 0) {
+            LOGGER.warning(() -> "Writing " + file + ": dropped " + dropped.sum() + " records, delayed "
+                    + delayed.sum() + " records.");
+        }
+    }
+}
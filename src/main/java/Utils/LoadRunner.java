@@ -0,0 +1,410 @@
+package Utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * The LoadRunner class runs a page-object flow from many concurrent virtual users to put load on the application.
+ * <p>
+ * Every virtual user runs the {@link Scenario} over and over with its own session until the run is over.
+ * The users are started evenly over {@link Constants#loadRampUpMillis} and the run ends after
+ * {@link Constants#loadDurationMillis}, counted from the start of the first user. A user waits
+ * {@link Constants#loadThinkMillis} between two iterations.
+ * </p>
+ * <p>
+ * Each user runs on its own virtual thread when the JVM supports them (Java 21 or newer), so a user blocked on
+ * the network costs no platform thread. On older JVMs every user gets a platform thread. With {@code -Dbrowser=http}
+ * every user opens its own {@link HttpSessionDriver}, which needs a few kilobytes. With a real browser the users
+ * lease their sessions from the {@link WebDriverPool}, so no more than {@link Constants#poolSize} users are active
+ * at the same time.
+ * </p>
+ * <p>
+ * The latency of every named step of the scenario and of every iteration is recorded in a {@link LatencyHistogram},
+ * together with the number of failures. At the end of the run the summary is logged and written to
+ * {@link Constants#loadReportFile} as JSON. The run can target the {@link StandInServer} with {@code -Dtarget=standin}
+ * to measure the throughput ceiling of the harness itself.
+ * </p>
+ *
+ * Example usage:
+ * <pre>{@code
+ * LoadRunner.Result result = LoadRunner.run("login", Browser.HTTP, (driver, steps) -> {
+ *     steps.step("open", () -> driver.get(Constants.baseURL));
+ *     SecurePage securePage = steps.step("login", () -> new LoginPage(driver).submitCredentials(username, password));
+ * });
+ * }</pre>
+ */
+public final class LoadRunner {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger();
+
+    /**
+     * The name under which whole iterations of the scenario are recorded.
+     */
+    public static final String ITERATION = "iteration";
+
+    /**
+     * A flow which is run by every virtual user.
+     */
+    @FunctionalInterface
+    public interface Scenario {
+
+        /**
+         * Runs one iteration of the flow. An iteration fails if it throws an exception or an assertion error.
+         *
+         * @param driver The session of the virtual user.
+         * @param steps  The recorder of the named steps of the iteration.
+         * @throws Exception If the iteration fails.
+         */
+        void run(WebDriver driver, Steps steps) throws Exception;
+    }
+
+    /**
+     * The latency and the failures of one step of the scenario.
+     */
+    private static final class StepStats {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder failures = new LongAdder();
+    }
+
+    /**
+     * The recorder of the named steps of a run, shared by all virtual users.
+     */
+    public static final class Steps {
+
+        private final Map<String, StepStats> stats = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        private Steps() {
+        }
+
+        /**
+         * Runs a step of the scenario and records its latency under the given name.
+         *
+         * @param name The name of the step, e.g. {@code open login page}.
+         * @param body The step.
+         * @return The result of the step.
+         */
+        public <T> T step(String name, Supplier<T> body) {
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                T result = body.get();
+                failed = false;
+                return result;
+            } finally {
+                record(name, System.nanoTime() - start, failed);
+            }
+        }
+
+        /**
+         * Runs a step of the scenario which has no result and records its latency under the given name.
+         *
+         * @param name The name of the step.
+         * @param body The step.
+         */
+        public void step(String name, Runnable body) {
+            step(name, () -> {
+                body.run();
+                return null;
+            });
+        }
+
+        private void record(String name, long nanos, boolean failed) {
+            StepStats step = stats.get(name);
+            if (step == null) {
+                step = stats.computeIfAbsent(name, key -> new StepStats());
+            }
+            step.histogram.record(nanos);
+            if (failed) {
+                step.failures.increment();
+            }
+        }
+
+        private void failed(Throwable error) {
+            errors.computeIfAbsent(error.getClass().getSimpleName(), key -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * The outcome of a load run.
+     */
+    public static final class Result {
+
+        private final Map<String, Object> report;
+        private final long iterations;
+        private final long failures;
+
+        private Result(Map<String, Object> report, long iterations, long failures) {
+            this.report = report;
+            this.iterations = iterations;
+            this.failures = failures;
+        }
+
+        /**
+         * Method which returns the number of completed iterations, including the failed ones.
+         *
+         * @return The iteration count.
+         */
+        public long getIterations() {
+            return iterations;
+        }
+
+        /**
+         * Method which returns the number of failed iterations.
+         *
+         * @return The failure count.
+         */
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * Method which returns the share of failed iterations.
+         *
+         * @return The error rate between 0 and 1, 0 if no iteration has completed.
+         */
+        public double getErrorRate() {
+            return iterations == 0 ? 0 : failures / (double) iterations;
+        }
+
+        /**
+         * Method which returns the report of the run, as it is written to {@link Constants#loadReportFile}.
+         *
+         * @return The report.
+         */
+        public Map<String, Object> getReport() {
+            return report;
+        }
+    }
+
+    private LoadRunner() {
+    }
+
+    /**
+     * Runs a scenario with the virtual users, ramp-up and duration of the {@link Constants}.
+     *
+     * @param name     The name of the run, used in the report.
+     * @param browser  The browser of the sessions, {@link Browser#HTTP} for lightweight sessions.
+     * @param scenario The flow run by every virtual user.
+     * @return The outcome of the run.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the run to end.
+     */
+    public static Result run(String name, Browser browser, Scenario scenario) throws InterruptedException {
+        return run(name, browser, scenario, Constants.loadUsers, Constants.loadRampUpMillis, Constants.loadDurationMillis);
+    }
+
+    /**
+     * Runs a scenario with the given number of virtual users for the given time.
+     *
+     * @param name           The name of the run, used in the report.
+     * @param browser        The browser of the sessions, {@link Browser#HTTP} for lightweight sessions.
+     * @param scenario       The flow run by every virtual user.
+     * @param users          The number of virtual users.
+     * @param rampUpMillis   The time over which the users are started.
+     * @param durationMillis The duration of the run, including the ramp-up.
+     * @return The outcome of the run.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the run to end.
+     */
+    public static Result run(String name, Browser browser, Scenario scenario, int users, long rampUpMillis,
+                             long durationMillis) throws InterruptedException {
+        if (users < 1) {
+            throw new IllegalArgumentException("A load run needs at least one virtual user, got " + users);
+        }
+        if (browser != Browser.HTTP && users > Constants.poolSize) {
+            LOGGER.warning(() -> "Only " + Constants.poolSize + " of " + users + " virtual users can hold a "
+                    + browser.getName() + " session at the same time, raise -Dpool.size to run them all.");
+        }
+        Steps steps = new Steps();
+        LongAdder failures = new LongAdder();
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        boolean[] virtual = new boolean[1];
+        ExecutorService executor = newExecutor(users, virtual);
+        LOGGER.info(() -> "Load run '" + name + "' started: " + users + " virtual users on " + browser.getName()
+                + (virtual[0] ? " virtual" : " platform") + " threads, ramp-up " + rampUpMillis + " ms, duration "
+                + durationMillis + " ms.");
+        for (int i = 0; i < users; i++) {
+            long startAt = start + TimeUnit.MILLISECONDS.toNanos(rampUpMillis * i / users);
+            executor.execute(() -> runUser(browser, scenario, steps, failures, startAt, deadline, active, peak));
+        }
+        executor.shutdown();
+        long grace = TimeUnit.MILLISECONDS.toNanos(Constants.waitTimeoutMillis) + TimeUnit.SECONDS.toNanos(30);
+        if (!executor.awaitTermination(deadline - System.nanoTime() + grace, TimeUnit.NANOSECONDS)) {
+            LOGGER.warning(() -> "Load run '" + name + "' did not finish in time, interrupting the virtual users.");
+            executor.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+        Result result = report(name, browser, users, rampUpMillis, durationMillis, elapsed, peak.get(), steps, failures.sum());
+        write(result.getReport());
+        return result;
+    }
+
+    private static void runUser(Browser browser, Scenario scenario, Steps steps, LongAdder failures, long startAt,
+                                long deadline, AtomicInteger active, AtomicInteger peak) {
+        WebDriverPool pool = browser == Browser.HTTP ? null : WebDriverPool.getInstance(browser);
+        WebDriver driver = null;
+        try {
+            sleepUntil(startAt);
+            driver = pool == null ? WebDriverHandler.createDriver(browser) : pool.acquire();
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            while (System.nanoTime() < deadline) {
+                long iteration = System.nanoTime();
+                boolean failed = true;
+                try {
+                    scenario.run(driver, steps);
+                    failed = false;
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception | AssertionError e) {
+                    failures.increment();
+                    steps.failed(e);
+                    LOGGER.fine(() -> "Load iteration failed with cause: " + e);
+                } finally {
+                    steps.record(ITERATION, System.nanoTime() - iteration, failed);
+                }
+                if (Constants.loadThinkMillis > 0) {
+                    sleepUntil(Math.min(deadline, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Constants.loadThinkMillis)));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (driver != null) {
+                active.decrementAndGet();
+                if (pool == null) {
+                    driver.quit();
+                } else {
+                    pool.release(driver);
+                }
+            }
+        }
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    /**
+     * Creates the executor of the virtual users. The virtual thread executor of Java 21 is looked up by reflection,
+     * because the framework is compiled for older JVMs.
+     *
+     * @param users   The number of virtual users.
+     * @param virtual Set to true if the executor runs virtual threads.
+     * @return An executor which runs every user on its own thread.
+     */
+    private static ExecutorService newExecutor(int users, boolean[] virtual) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService executor = (ExecutorService) factory.invoke(null);
+            virtual[0] = true;
+            return executor;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(users, runnable -> {
+                Thread thread = new Thread(runnable, "load-user-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private static Result report(String name, Browser browser, int users, long rampUpMillis, long durationMillis,
+                                 long elapsedNanos, int peak, Steps steps, long failures) {
+        StepStats iterations = steps.stats.getOrDefault(ITERATION, new StepStats());
+        long count = iterations.histogram.getCount();
+        double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("name", name);
+        report.put("browser", browser.getName());
+        report.put("users", users);
+        report.put("peakActiveUsers", peak);
+        report.put("rampUpMillis", rampUpMillis);
+        report.put("durationMillis", durationMillis);
+        report.put("elapsedMillis", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        report.put("iterations", count);
+        report.put("failures", failures);
+        report.put("errorRate", count == 0 ? 0 : failures / (double) count);
+        report.put("throughputPerSecond", seconds == 0 ? 0 : count / seconds);
+
+        StringBuilder table = new StringBuilder(String.format("Load run '%s' (ms): %d iterations, %.1f/s, %d failed%n",
+                name, count, seconds == 0 ? 0 : count / seconds, failures));
+        table.append(String.format("%-30s %8s %7s %9s %9s %9s %9s %9s%n", "step", "count", "failed", "mean", "p50", "p95", "p99", "max"));
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map.Entry<String, StepStats> entry : new TreeMap<>(steps.stats).entrySet()) {
+            LatencyHistogram histogram = entry.getValue().histogram;
+            long failed = entry.getValue().failures.sum();
+            String step = entry.getKey();
+            table.append(String.format("%-30s %8d %7d %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                    step.length() > 30 ? step.substring(0, 27) + "..." : step, histogram.getCount(), failed,
+                    millis(histogram.getMean()), millis(histogram.getPercentile(50)), millis(histogram.getPercentile(95)),
+                    millis(histogram.getPercentile(99)), millis(histogram.getMax())));
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("step", step);
+            row.put("count", histogram.getCount());
+            row.put("failures", failed);
+            row.put("throughputPerSecond", seconds == 0 ? 0 : histogram.getCount() / seconds);
+            row.put("meanNanos", histogram.getMean());
+            row.put("p50Nanos", histogram.getPercentile(50));
+            row.put("p90Nanos", histogram.getPercentile(90));
+            row.put("p95Nanos", histogram.getPercentile(95));
+            row.put("p99Nanos", histogram.getPercentile(99));
+            row.put("maxNanos", histogram.getMax());
+            rows.add(row);
+        }
+        report.put("steps", rows);
+        Map<String, Long> errors = new TreeMap<>();
+        steps.errors.forEach((type, adder) -> errors.put(type, adder.sum()));
+        report.put("errors", errors);
+        if (!errors.isEmpty()) {
+            table.append("Errors: ").append(errors).append('\n');
+        }
+        LOGGER.info(table.toString());
+        return new Result(report, count, failures);
+    }
+
+    private static void write(Map<String, Object> report) {
+        Path file = Paths.get(Constants.loadReportFile);
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write(new Json().toJson(report));
+            }
+            LOGGER.info(() -> "Load report written to " + file);
+        } catch (IOException e) {
+            LOGGER.warning(() -> "Unable to write load report to " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -14,4 +14,5 @@ public class Locator {
     public static By loginButton = By.cssSelector("button[type='submit']");
     public static By errorMessage = By.cssSelector(".flash.error");
     public static final By securePageMessage = By.cssSelector(".flash.success");
+    public static final By logoutButton = By.cssSelector("a[href='/logout']");
 }
@@ -1,8 +1,16 @@
 package Utils;
 
-import java.util.logging.ConsoleHandler;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.FileHandler;
+import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
 
 /**
  * This class initializes a LOGGER as an instance of a public class 'logger' from java.util.logging,
@@ -17,16 +25,53 @@ import java.util.logging.Logger;
  * - SLF4J (Simple Logging Facade for Java)
  * - java.util.logging (JUL)
  *
+ * <p>
+ * Log records are written by an {@link AsyncLogHandler}, so logging does not block the test threads on console
+ * or file output. The records go to the console, unless {@link Constants#logConsole} is off, and to rolling log
+ * files ({@link Constants#logFilePattern}).
+ * The level is set with {@code -Dlog.level}. Messages which are built from several values should be passed as
+ * a {@code Supplier}, e.g. {@code LOGGER.info(() -> "Opened " + url)}, so they are not built when the level is off.
+ * </p>
  */
 public class LoggerUtil {
     private static final Logger LOGGER = Logger.getLogger(LoggerUtil.class.getName());
 
+    private static final AsyncLogHandler HANDLER;
+
     static {
         // logger configuration
-        ConsoleHandler consoleHandler = new ConsoleHandler();
-        consoleHandler.setLevel(Level.ALL);
-        LOGGER.addHandler(consoleHandler);
-        LOGGER.setLevel(Level.ALL);
+        Level level = Level.parse(Constants.logLevel);
+        HANDLER = new AsyncLogHandler(Constants.logBufferSize, Constants.logConsole ? System.err : null, fileHandlers());
+        HANDLER.setLevel(level);
+        LOGGER.addHandler(HANDLER);
+        LOGGER.setLevel(level);
+        // the root console handler would print every record a second time
+        LOGGER.setUseParentHandlers(false);
+        Runtime.getRuntime().addShutdownHook(new Thread(LoggerUtil::shutdown, "logger-shutdown"));
+    }
+
+    /**
+     * Creates the rolling file handler of the log, 10 MB per file and at most 5 files.
+     *
+     * @return The file handler, or no handler when log files are disabled or cannot be created.
+     */
+    private static List<Handler> fileHandlers() {
+        List<Handler> handlers = new ArrayList<>();
+        if (Constants.logFilePattern.isEmpty()) {
+            return handlers;
+        }
+        try {
+            Path parent = Paths.get(Constants.logFilePattern).toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            FileHandler fileHandler = new FileHandler(Constants.logFilePattern, 10 * 1024 * 1024, 5, false);
+            fileHandler.setFormatter(new SimpleFormatter());
+            handlers.add(fileHandler);
+        } catch (IOException e) {
+            System.err.println("Unable to open log file " + Constants.logFilePattern + ": " + e.getMessage());
+        }
+        return handlers;
     }
 
     /**
@@ -47,4 +92,12 @@ public class LoggerUtil {
     public static Logger getLogger() {
         return LOGGER;
     }
+
+    /**
+     * Writes all buffered log records and closes the log files.
+     * It is called at the end of the run and again from a shutdown hook, the second call does nothing.
+     */
+    public static void shutdown() {
+        HANDLER.close();
+    }
 }
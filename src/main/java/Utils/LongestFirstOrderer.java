@@ -0,0 +1,78 @@
+package Utils;
+
+import org.junit.jupiter.api.ClassDescriptor;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.ClassOrdererContext;
+import org.junit.jupiter.api.MethodDescriptor;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.MethodOrdererContext;
+import org.junit.jupiter.api.Order;
+import org.junit.platform.commons.annotation.Testable;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
+
+import java.util.Comparator;
+
+/**
+ * The LongestFirstOrderer class orders test classes and test methods by their expected duration, longest first.
+ * <p>
+ * The expected durations come from the {@link TimingHistory} of previous runs. Test classes run concurrently,
+ * so starting the longest classes first lets the short ones fill the gaps of the other worker threads at the end
+ * of the run, instead of a long class starting last and running alone.
+ * </p>
+ * <p>
+ * An explicit {@link Order} is always respected: tests with a lower order value run before tests with a higher one,
+ * and only tests with the same order value, including all tests without {@code @Order}, are ordered by duration.
+ * Ties keep the order of the names, so the order is the same on every machine with the same history.
+ * </p>
+ * <p>
+ * It is the default orderer of classes and methods in {@code junit-platform.properties} and can be selected
+ * for a single class with {@code @TestMethodOrder(LongestFirstOrderer.class)}.
+ * </p>
+ */
+public class LongestFirstOrderer implements ClassOrderer, MethodOrderer {
+
+    /**
+     * Orders the test classes of the run.
+     *
+     * @param context The context with the descriptors of the test classes.
+     */
+    @Override
+    public void orderClasses(ClassOrdererContext context) {
+        context.getClassDescriptors().sort(Comparator
+                .comparingInt((ClassDescriptor descriptor) -> orderOf(descriptor.findAnnotation(Order.class).orElse(null)))
+                .thenComparing(Comparator.comparingLong(LongestFirstOrderer::expectedMillis).reversed())
+                .thenComparing(descriptor -> descriptor.getTestClass().getName()));
+    }
+
+    /**
+     * Orders the test methods of a test class.
+     *
+     * @param context The context with the descriptors of the test methods.
+     */
+    @Override
+    public void orderMethods(MethodOrdererContext context) {
+        String className = context.getTestClass().getName();
+        context.getMethodDescriptors().sort(Comparator
+                .comparingInt((MethodDescriptor descriptor) -> orderOf(descriptor.findAnnotation(Order.class).orElse(null)))
+                .thenComparing(Comparator.comparingLong((MethodDescriptor descriptor) ->
+                        TimingHistory.expectedMillis(className, descriptor.getMethod().getName())).reversed())
+                .thenComparing(descriptor -> descriptor.getMethod().getName()));
+    }
+
+    /**
+     * Method which returns the expected duration of a test class. Without a history, it is estimated from the number
+     * of test methods, i.e. all methods of the class and its superclasses which are annotated or meta-annotated
+     * with {@link Testable}, such as {@code @Test}, {@code @ParameterizedTest} and {@code @TestFactory}, whatever
+     * their visibility.
+     */
+    private static long expectedMillis(ClassDescriptor descriptor) {
+        Class<?> testClass = descriptor.getTestClass();
+        int testCount = AnnotationSupport.findAnnotatedMethods(testClass, Testable.class, HierarchyTraversalMode.TOP_DOWN).size();
+        return TimingHistory.expectedClassMillis(testClass.getName(), testCount);
+    }
+
+    private static int orderOf(Order order) {
+        return order == null ? Order.DEFAULT : order.value();
+    }
+}
@@ -0,0 +1,164 @@
+package Utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.devtools.v115.fetch.Fetch;
+import org.openqa.selenium.devtools.v115.fetch.model.RequestPattern;
+import org.openqa.selenium.devtools.v115.fetch.model.RequestStage;
+import org.openqa.selenium.devtools.v115.network.Network;
+import org.openqa.selenium.devtools.v115.network.model.ErrorReason;
+import org.openqa.selenium.devtools.v115.network.model.ResourceType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * The NetworkProfile class blocks network requests which the tests do not need, using the DevTools protocol of the browser.
+ * <p>
+ * Requests are blocked before they are sent, by resource type ({@link Constants#blockedResourceTypes}, e.g. images, fonts
+ * and stylesheets) and by URL pattern ({@link Constants#blockedUrlPatterns}, with {@code *} wildcards). The profile counts
+ * the blocked requests per resource type and the bytes transferred by the requests which were let through, and its
+ * counters can be read and reset per test.
+ * </p>
+ * <p>
+ * The profile needs a browser which supports the DevTools protocol, i.e. Chrome or Edge. Other browsers are left untouched.
+ * </p>
+ */
+public final class NetworkProfile {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger();
+
+    private static final Map<WebDriver, NetworkProfile> profiles = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final LongAdder totalBlocked = new LongAdder();
+
+    private final Map<String, LongAdder> blocked = new ConcurrentHashMap<>();
+    private final LongAdder transferredBytes = new LongAdder();
+
+    private NetworkProfile() {
+    }
+
+    /**
+     * Checks if a network profile is configured for this run.
+     *
+     * @return true if at least one resource type or URL pattern is blocked.
+     */
+    public static boolean isEnabled() {
+        return !Constants.blockedResourceTypes.isEmpty() || !Constants.blockedUrlPatterns.isEmpty();
+    }
+
+    /**
+     * Installs the configured network profile in a new browser session.
+     *
+     * @param driver The WebDriver of the session, which must implement {@link HasDevTools}.
+     */
+    public static void apply(WebDriver driver) {
+        if (!(driver instanceof HasDevTools)) {
+            LOGGER.warning(() -> "Network profile is not supported by " + driver.getClass().getSimpleName());
+            return;
+        }
+        NetworkProfile profile = new NetworkProfile();
+        DevTools devTools = ((HasDevTools) driver).getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+
+        List<RequestPattern> patterns = new ArrayList<>();
+        for (String type : Constants.blockedResourceTypes) {
+            patterns.add(new RequestPattern(Optional.of("*"), Optional.of(resourceType(type)),
+                    Optional.of(RequestStage.REQUEST)));
+        }
+        for (String urlPattern : Constants.blockedUrlPatterns) {
+            patterns.add(new RequestPattern(Optional.of(urlPattern), Optional.empty(), Optional.of(RequestStage.REQUEST)));
+        }
+        devTools.addListener(Fetch.requestPaused(), paused -> {
+            profile.blocked.computeIfAbsent(paused.getResourceType().toString(), type -> new LongAdder()).increment();
+            totalBlocked.increment();
+            devTools.send(Fetch.failRequest(paused.getRequestId(), ErrorReason.BLOCKEDBYCLIENT));
+        });
+        devTools.send(Network.enable(Optional.empty(), Optional.empty(), Optional.empty()));
+        devTools.addListener(Network.loadingFinished(),
+                finished -> profile.transferredBytes.add(finished.getEncodedDataLength().longValue()));
+        devTools.send(Fetch.enable(Optional.of(patterns), Optional.of(false)));
+        profiles.put(driver, profile);
+    }
+
+    /**
+     * Method which returns the profile installed in a session.
+     *
+     * @param driver The WebDriver of the session.
+     * @return The network profile, or null if none is installed.
+     */
+    public static NetworkProfile forDriver(WebDriver driver) {
+        return profiles.get(driver);
+    }
+
+    /**
+     * Method which returns the number of blocked requests per resource type since the last {@link #reset()}.
+     *
+     * @return The blocked request counts, sorted by resource type.
+     */
+    public Map<String, Long> getBlockedRequests() {
+        Map<String, Long> counts = new TreeMap<>();
+        blocked.forEach((type, count) -> counts.put(type, count.sum()));
+        return counts;
+    }
+
+    /**
+     * Method which returns the bytes transferred by the requests which were not blocked since the last {@link #reset()}.
+     *
+     * @return The transferred bytes.
+     */
+    public long getTransferredBytes() {
+        return transferredBytes.sum();
+    }
+
+    /**
+     * Resets the counters of the profile, e.g. at the start of a test.
+     */
+    public void reset() {
+        blocked.clear();
+        transferredBytes.reset();
+    }
+
+    /**
+     * Method which returns the counters of the profile in a human-readable form.
+     *
+     * @return The summary of blocked requests and transferred bytes.
+     */
+    public String summary() {
+        long count = 0;
+        for (long blockedCount : getBlockedRequests().values()) {
+            count += blockedCount;
+        }
+        return "blocked " + count + " requests " + getBlockedRequests() + ", transferred " + getTransferredBytes() + " bytes";
+    }
+
+    /**
+     * Method which returns the number of requests blocked in all sessions of this run.
+     *
+     * @return The blocked request count.
+     */
+    public static long getTotalBlocked() {
+        return totalBlocked.sum();
+    }
+
+    /**
+     * Finds the DevTools resource type for a configured name, ignoring case.
+     */
+    private static ResourceType resourceType(String name) {
+        for (ResourceType type : ResourceType.values()) {
+            if (type.toString().equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown resource type: " + name);
+    }
+}
@@ -0,0 +1,108 @@
+package Utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The PerformanceBudget class keeps the durations of named navigations and asserts budgets on them.
+ * <p>
+ * Durations are recorded by {@link PerformanceCapture}. A budget is a limit for a percentile of the durations
+ * recorded under a name by the current test, e.g. "login round trip p95 &lt; 800 ms". An exceeded budget fails the
+ * test which checks it. Tests running at the same time, other browsers and earlier tests do not affect the result.
+ * The samples of a test are kept for the thread which runs it and are dropped by {@link #startTest()}, which the
+ * {@link DriverSessionExtension} calls before every test.
+ * </p>
+ * <p>
+ * All durations of the run are also kept per name, in a {@link LatencyHistogram} of fixed size, so memory does not
+ * grow with the number of navigations.
+ * </p>
+ *
+ * Example usage:
+ * <pre>{@code
+ * PerformanceBudget.assertPercentileBelow("login", 95, 800);
+ * }</pre>
+ */
+public final class PerformanceBudget {
+
+    private static final Map<String, LatencyHistogram> durations = new ConcurrentHashMap<>();
+
+    /**
+     * The durations recorded by the test of the current thread.
+     */
+    private static final ThreadLocal<Map<String, LatencyHistogram>> testDurations = ThreadLocal.withInitial(HashMap::new);
+
+    private PerformanceBudget() {
+    }
+
+    /**
+     * Records the duration of a navigation for the run and for the test of the current thread.
+     *
+     * @param name           The name of the navigation.
+     * @param durationMillis The duration in milliseconds.
+     */
+    public static void record(String name, double durationMillis) {
+        long nanos = Math.round(durationMillis * 1_000_000);
+        durations.computeIfAbsent(name, key -> new LatencyHistogram()).record(nanos);
+        testDurations.get().computeIfAbsent(name, key -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Drops the durations recorded by the previous test of the current thread.
+     */
+    public static void startTest() {
+        testDurations.get().clear();
+    }
+
+    /**
+     * Computes a percentile of the durations recorded under a name during the whole run.
+     *
+     * @param name       The name of the navigation.
+     * @param percentile The percentile between 0 and 100.
+     * @return The percentile in milliseconds, or -1 if nothing has been recorded.
+     */
+    public static double percentile(String name, double percentile) {
+        return percentile(durations.get(name), percentile);
+    }
+
+    /**
+     * Computes a percentile of the durations recorded under a name by the test of the current thread.
+     *
+     * @param name       The name of the navigation.
+     * @param percentile The percentile between 0 and 100.
+     * @return The percentile in milliseconds, or -1 if nothing has been recorded.
+     */
+    public static double testPercentile(String name, double percentile) {
+        return percentile(testDurations.get().get(name), percentile);
+    }
+
+    private static double percentile(LatencyHistogram histogram, double percentile) {
+        if (histogram == null || histogram.getCount() == 0) {
+            return -1;
+        }
+        return histogram.getPercentile(percentile) / 1_000_000.0;
+    }
+
+    /**
+     * Asserts that a percentile of the durations recorded under a name by the current test stays below a budget.
+     * <p>
+     * The assertion fails if the test has recorded nothing under the name, unless performance capture is switched off.
+     * Percentiles are read from a {@link LatencyHistogram}, which rounds them up by at most 12.5%.
+     * </p>
+     *
+     * @param name       The name of the navigation.
+     * @param percentile The percentile between 0 and 100.
+     * @param maxMillis  The budget in milliseconds.
+     */
+    public static void assertPercentileBelow(String name, double percentile, double maxMillis) {
+        if (!Constants.capturePerformance) {
+            return;
+        }
+        double actual = testPercentile(name, percentile);
+        assertTrue(actual >= 0, "No navigation timing recorded for: " + name);
+        assertTrue(actual < maxMillis, "Performance budget exceeded for " + name + ": p" + percentile
+                + " is " + Math.round(actual) + " ms, budget is " + Math.round(maxMillis) + " ms");
+    }
+}
@@ -0,0 +1,89 @@
+package Utils;
+
+import io.qameta.allure.Allure;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.json.Json;
+
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * The PerformanceCapture class collects the Navigation Timing and Paint Timing entries of the page
+ * which has just been loaded in the browser.
+ * <p>
+ * The entries are attached to the Allure report as JSON, and the duration of the navigation is recorded
+ * under the given name in the {@link PerformanceBudget}, where it can be checked against a budget.
+ * The duration is taken from the start of the navigation, including redirects, to the end of the load event,
+ * or to the end of the response if the load event has not finished yet.
+ * </p>
+ * <p>
+ * Capturing costs one script call per navigation and can be switched off with {@code -Dperf.capture=false}.
+ * Pages loaded by the {@link HttpSessionDriver} have no timing entries, for them the time from the first request
+ * to the end of the last response is recorded instead.
+ * </p>
+ */
+public final class PerformanceCapture {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger();
+
+    private static final String TIMING_SCRIPT =
+            "var toJson = function (entry) { return entry.toJSON(); };"
+            + "return {navigation: performance.getEntriesByType('navigation').map(toJson),"
+            + "        paint: performance.getEntriesByType('paint').map(toJson)};";
+
+    private static final Json JSON = new Json();
+
+    private PerformanceCapture() {
+    }
+
+    /**
+     * Collects the timing entries of the current page, attaches them to the report and records the navigation duration.
+     *
+     * @param driver The WebDriver which has navigated.
+     * @param name   The name the navigation is recorded under, e.g. {@code login}.
+     * @return The duration of the navigation in milliseconds, or -1 if no timing could be collected.
+     */
+    @SuppressWarnings("unchecked")
+    public static double capture(WebDriver driver, String name) {
+        if (Constants.capturePerformance && driver instanceof HttpSessionDriver) {
+            long duration = ((HttpSessionDriver) driver).getLastLoadMillis();
+            if (duration < 0) {
+                return -1;
+            }
+            PerformanceBudget.record(name, duration);
+            return duration;
+        }
+        if (!Constants.capturePerformance || !(driver instanceof JavascriptExecutor)) {
+            return -1;
+        }
+        Map<String, Object> timing;
+        try {
+            timing = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(TIMING_SCRIPT);
+        } catch (WebDriverException e) {
+            LOGGER.warning(() -> "Unable to capture performance timing for: " + name + " with cause: " + e.getMessage());
+            return -1;
+        }
+        Allure.addAttachment("Performance timing: " + name, "application/json", JSON.toJson(timing), ".json");
+
+        List<Map<String, Object>> navigation = (List<Map<String, Object>>) timing.get("navigation");
+        if (navigation == null || navigation.isEmpty()) {
+            return -1;
+        }
+        Map<String, Object> entry = navigation.get(0);
+        double end = number(entry, "loadEventEnd");
+        if (end <= 0) {
+            end = number(entry, "responseEnd");
+        }
+        double duration = end - number(entry, "startTime");
+        PerformanceBudget.record(name, duration);
+        return duration;
+    }
+
+    private static double number(Map<String, Object> entry, String key) {
+        Object value = entry.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+}
@@ -0,0 +1,54 @@
+package Utils;
+
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.LauncherSessionListener;
+
+import java.util.logging.Logger;
+
+/**
+ * The RunLifecycleListener class is a JUnit Platform listener which is notified once when the test run
+ * starts and once when it ends, before any test engine discovers or executes tests.
+ * <p>
+ * It starts the background warm-up of the {@link WebDriverPool} as early as possible, quits all
+ * remaining browser sessions and the {@link StandInServer} at the end of the run and reports the run-wide counters
+ * and action timings.
+ * The listener is registered in {@code META-INF/services/org.junit.platform.launcher.LauncherSessionListener}.
+ * </p>
+ */
+public class RunLifecycleListener implements LauncherSessionListener {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger();
+
+    /**
+     * Called when the test run starts.
+     *
+     * @param session The launcher session which has been opened.
+     */
+    @Override
+    public void launcherSessionOpened(LauncherSession session) {
+        if (Constants.warmSessions > 0) {
+            for (Browser browser : Browser.configured()) {
+                WebDriverPool.getInstance(browser).prewarm(Constants.warmSessions);
+            }
+        }
+    }
+
+    /**
+     * Called when the test run ends.
+     *
+     * @param session The launcher session which has been closed.
+     */
+    @Override
+    public void launcherSessionClosed(LauncherSession session) {
+        FailureArtifacts.shutdown();
+        WebDriverPool.shutdownAll();
+        LOGGER.info(() -> "Element cache: " + ElementCache.summary());
+        ActionTimings.report();
+        TestResultLogger.logRunSummary();
+        if (NetworkProfile.isEnabled()) {
+            LOGGER.info(() -> "Network profile: blocked " + NetworkProfile.getTotalBlocked() + " requests.");
+        }
+        StandInServer.stop();
+        LoggerUtil.shutdown();
+    }
+}
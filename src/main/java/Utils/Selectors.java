@@ -0,0 +1,69 @@
+package Utils;
+
+import org.openqa.selenium.By;
+
+import java.util.regex.Pattern;
+
+/**
+ * The Selectors class translates Selenium locators into selectors that can be evaluated by scripts running in the page.
+ * <p>
+ * Locators by id, name, class name, tag name and CSS are translated into CSS selectors and XPath locators
+ * are kept as they are, which covers all locators used in {@link Locator}. Link text locators cannot be translated.
+ * </p>
+ */
+public final class Selectors {
+
+    public static final String CSS = "css selector";
+    public static final String XPATH = "xpath";
+
+    private static final Pattern IDENTIFIER = Pattern.compile("-?[_a-zA-Z][_a-zA-Z0-9-]*");
+
+    private Selectors() {
+    }
+
+    /**
+     * Method which returns the strategy and the selector of a locator.
+     *
+     * @param locator The locator to translate.
+     * @return An array with the strategy ({@link #CSS} or {@link #XPATH}) and the selector,
+     *         or null if the locator cannot be evaluated by a script.
+     */
+    public static String[] toSelector(By locator) {
+        if (!(locator instanceof By.Remotable)) {
+            return null;
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        String value = String.valueOf(parameters.value());
+        switch (parameters.using()) {
+            case CSS:
+                return new String[]{CSS, value};
+            case XPATH:
+                return new String[]{XPATH, value};
+            case "id":
+                return new String[]{CSS, IDENTIFIER.matcher(value).matches() ? "#" + value : attribute("id", value)};
+            case "name":
+                return new String[]{CSS, attribute("name", value)};
+            case "class name":
+                return IDENTIFIER.matcher(value).matches() ? new String[]{CSS, "." + value} : null;
+            case "tag name":
+                return new String[]{CSS, value};
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Method which returns the CSS selector of a locator.
+     *
+     * @param locator The locator to translate.
+     * @return The CSS selector, or null if the locator cannot be expressed as a CSS selector.
+     */
+    public static String toCss(By locator) {
+        String[] selector = toSelector(locator);
+        return selector != null && CSS.equals(selector[0]) ? selector[1] : null;
+    }
+
+    private static String attribute(String name, String value) {
+        return "*[" + name + "=\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"]";
+    }
+}
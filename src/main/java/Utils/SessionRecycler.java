@@ -0,0 +1,133 @@
+package Utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * The SessionRecycler class brings a used browser session back to a clean state so that it can be
+ * leased again instead of being quit and relaunched.
+ * <p>
+ * A reset closes all windows except one, clears cookies, local storage and session storage and navigates
+ * to {@code about:blank}. A session which fails the reset or the health check afterwards is reported as
+ * broken, and the {@link WebDriverPool} quits it so that the next lease launches a new browser.
+ * </p>
+ * <p>
+ * The number of recycled and broken sessions and the reset latency are collected for the whole run
+ * and can be read with {@link #summary()}.
+ * </p>
+ */
+public final class SessionRecycler {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger();
+
+    private static final String CLEAR_STORAGE_SCRIPT =
+            "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}";
+
+    private static final LongAdder recycled = new LongAdder();
+    private static final LongAdder broken = new LongAdder();
+    private static final LongAdder resetNanos = new LongAdder();
+    private static final LongAccumulator maxResetNanos = new LongAccumulator(Math::max, 0);
+
+    private SessionRecycler() {
+    }
+
+    /**
+     * Resets the session to a clean state and checks that it is still usable.
+     *
+     * @param driver The WebDriver to reset.
+     * @return true if the session can be leased again, false if it is broken and has to be quit.
+     */
+    public static boolean reset(WebDriver driver) {
+        long start = System.nanoTime();
+        try {
+            closeExtraWindows(driver);
+            driver.manage().deleteAllCookies();
+            if (driver instanceof JavascriptExecutor) {
+                ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE_SCRIPT);
+            }
+            driver.get("about:blank");
+            ElementCache.navigated(driver);
+            if (!isHealthy(driver)) {
+                broken.increment();
+                return false;
+            }
+            recycled.increment();
+            return true;
+        } catch (WebDriverException e) {
+            LOGGER.warning(() -> "Unable to reset WebDriver session: " + e.getMessage());
+            broken.increment();
+            return false;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            resetNanos.add(elapsed);
+            maxResetNanos.accumulate(elapsed);
+        }
+    }
+
+    /**
+     * Checks that the browser still answers commands and shows a single blank window.
+     *
+     * @param driver The WebDriver to check.
+     * @return true if the session is usable, false otherwise.
+     */
+    public static boolean isHealthy(WebDriver driver) {
+        try {
+            return driver.getWindowHandles().size() == 1 && "about:blank".equals(driver.getCurrentUrl());
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Closes every window of the session except one and switches to the remaining window.
+     */
+    private static void closeExtraWindows(WebDriver driver) {
+        Iterator<String> handles = driver.getWindowHandles().iterator();
+        if (!handles.hasNext()) {
+            throw new WebDriverException("Session has no open window.");
+        }
+        String keep = handles.next();
+        while (handles.hasNext()) {
+            driver.switchTo().window(handles.next());
+            driver.close();
+        }
+        driver.switchTo().window(keep);
+    }
+
+    /**
+     * Method which returns the number of sessions successfully recycled during this run.
+     *
+     * @return The recycle count.
+     */
+    public static long getRecycledCount() {
+        return recycled.sum();
+    }
+
+    /**
+     * Method which returns the number of sessions that failed the reset and had to be relaunched.
+     *
+     * @return The broken session count.
+     */
+    public static long getBrokenCount() {
+        return broken.sum();
+    }
+
+    /**
+     * Method which returns the recycle metrics in a human-readable form.
+     *
+     * @return The summary of recycle counts and reset latency.
+     */
+    public static String summary() {
+        long resets = recycled.sum() + broken.sum();
+        long avgMillis = resets == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(resetNanos.sum() / resets);
+        return "recycled=" + recycled.sum() + ", broken=" + broken.sum()
+                + ", reset avg " + avgMillis + " ms, max " + TimeUnit.NANOSECONDS.toMillis(maxResetNanos.get()) + " ms";
+    }
+}
@@ -0,0 +1,219 @@
+package Utils;
+
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * The ShardFilter class splits the tests of a run across several JVMs, each one running one shard.
+ * <p>
+ * The shard of a JVM is set with {@code -Dshard.index} (starting at 0) and {@code -Dshard.count}. All JVMs discover
+ * the same tests and compute the same assignment, then each one keeps only the tests of its own shard.
+ * Tests are assigned by their expected duration from the {@link TimingHistory}, not by their count: the longest
+ * units are assigned first, each one to the shard with the least expected time so far, or with the fewest units
+ * when the expected times are equal. A test class is one unit,
+ * so its tests share one browser session, unless the class alone is expected to take longer than an even share
+ * of the run; then its tests are assigned one by one. Ties are broken by the unique ids of the tests, so the same
+ * tests and the same history always give the same assignment.
+ * </p>
+ * <p>
+ * Data-driven tests, annotated with {@link DataFile}, are kept in every shard, because their rows are split across
+ * the shards by the {@link DataFileArgumentsProvider}.
+ * </p>
+ * <p>
+ * The filter is registered in {@code META-INF/services/org.junit.platform.launcher.PostDiscoveryFilter} and keeps
+ * all tests when {@code shard.count} is 1. The reports of the shards are combined by {@link ShardReportMerger}.
+ * </p>
+ */
+public class ShardFilter implements PostDiscoveryFilter {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger();
+
+    /**
+     * Assignment of the tests of the discovered tree, computed when the first test is filtered.
+     * Surefire discovers every test class on its own before it discovers all of them, and all these trees
+     * have the same root id, so the assignment is kept for the root descriptor itself.
+     */
+    private TestDescriptor assignedRoot;
+    private Map<UniqueId, Integer> assignment;
+    private boolean singleClass;
+
+    /**
+     * Decides whether a discovered test belongs to the shard of this JVM. Containers are always included,
+     * the empty ones are removed by the platform after filtering.
+     *
+     * @param descriptor The discovered test or container.
+     * @return The filter result.
+     */
+    @Override
+    public synchronized FilterResult apply(TestDescriptor descriptor) {
+        if (Constants.shardCount <= 1 || !isTest(descriptor)) {
+            return FilterResult.included("not sharded");
+        }
+        if (isDataDriven(descriptor)) {
+            return FilterResult.included("rows sharded by data file");
+        }
+        TestDescriptor root = root(descriptor);
+        if (assignment == null || root != assignedRoot) {
+            assignedRoot = root;
+            assignment = assign(root, Constants.shardCount);
+            Map<String, List<TestDescriptor>> testsByClass = new LinkedHashMap<>();
+            collectTests(root, testsByClass);
+            singleClass = testsByClass.size() == 1 && assignment.size() < Constants.shardCount;
+            LOGGER.info(() -> "Shard " + Constants.shardIndex + " of " + Constants.shardCount + ": "
+                    + assignment.values().stream().filter(shard -> shard == Constants.shardIndex).count()
+                    + " of " + assignment.size() + " tests.");
+        }
+        if (singleClass) {
+            // the scan of a single class must not drop a class which the whole run assigns to this shard
+            return FilterResult.included("fewer tests than shards");
+        }
+        Integer shard = assignment.get(descriptor.getUniqueId());
+        return shard == null || shard == Constants.shardIndex
+                ? FilterResult.included("shard " + Constants.shardIndex)
+                : FilterResult.excluded("assigned to shard " + shard);
+    }
+
+    /**
+     * Assigns all tests below a root to the shards.
+     *
+     * @param root       The root of the discovered tree.
+     * @param shardCount The number of shards.
+     * @return The shard of every test, by unique id.
+     */
+    static Map<UniqueId, Integer> assign(TestDescriptor root, int shardCount) {
+        Map<String, List<TestDescriptor>> testsByClass = new LinkedHashMap<>();
+        collectTests(root, testsByClass);
+
+        Map<String, Long> classMillis = new HashMap<>();
+        long totalMillis = 0;
+        for (Map.Entry<String, List<TestDescriptor>> entry : testsByClass.entrySet()) {
+            long millis = 0;
+            for (TestDescriptor test : entry.getValue()) {
+                millis += expectedMillis(test);
+            }
+            classMillis.put(entry.getKey(), millis);
+            totalMillis += millis;
+        }
+
+        List<Unit> units = new ArrayList<>();
+        long share = totalMillis / shardCount;
+        for (Map.Entry<String, List<TestDescriptor>> entry : testsByClass.entrySet()) {
+            if (classMillis.get(entry.getKey()) > share && entry.getValue().size() > 1) {
+                for (TestDescriptor test : entry.getValue()) {
+                    List<TestDescriptor> single = new ArrayList<>();
+                    single.add(test);
+                    units.add(new Unit(test.getUniqueId().toString(), expectedMillis(test), single));
+                }
+            } else {
+                units.add(new Unit(entry.getKey(), classMillis.get(entry.getKey()), entry.getValue()));
+            }
+        }
+        units.sort(Comparator.comparingLong((Unit unit) -> unit.millis).reversed().thenComparing(unit -> unit.key));
+
+        long[] load = new long[shardCount];
+        int[] unitCount = new int[shardCount];
+        Map<UniqueId, Integer> assignment = new HashMap<>();
+        for (Unit unit : units) {
+            int shard = 0;
+            for (int i = 1; i < shardCount; i++) {
+                if (load[i] < load[shard] || load[i] == load[shard] && unitCount[i] < unitCount[shard]) {
+                    shard = i;
+                }
+            }
+            load[shard] += unit.millis;
+            unitCount[shard]++;
+            for (TestDescriptor test : unit.tests) {
+                assignment.put(test.getUniqueId(), shard);
+            }
+        }
+        return assignment;
+    }
+
+    /**
+     * Tests, or test templates whose invocations are only created when they run, grouped by the unique id
+     * of their test class.
+     */
+    private static void collectTests(TestDescriptor descriptor, Map<String, List<TestDescriptor>> testsByClass) {
+        if (isTest(descriptor) && isDataDriven(descriptor)) {
+            return;
+        }
+        if (isTest(descriptor)) {
+            testsByClass.computeIfAbsent(classId(descriptor), key -> new ArrayList<>()).add(descriptor);
+            return;
+        }
+        for (TestDescriptor child : descriptor.getChildren()) {
+            collectTests(child, testsByClass);
+        }
+    }
+
+    private static boolean isTest(TestDescriptor descriptor) {
+        return descriptor.isTest() || descriptor.getSource().filter(MethodSource.class::isInstance).isPresent()
+                && descriptor.getChildren().isEmpty();
+    }
+
+    private static boolean isDataDriven(TestDescriptor descriptor) {
+        TestSource source = descriptor.getSource().orElse(null);
+        if (!(source instanceof MethodSource)) {
+            return false;
+        }
+        try {
+            return ((MethodSource) source).getJavaMethod().isAnnotationPresent(DataFile.class);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static String classId(TestDescriptor descriptor) {
+        for (TestDescriptor parent = descriptor.getParent().orElse(null); parent != null; parent = parent.getParent().orElse(null)) {
+            if (parent.getSource().filter(ClassSource.class::isInstance).isPresent()) {
+                return parent.getUniqueId().toString();
+            }
+        }
+        return descriptor.getUniqueId().toString();
+    }
+
+    private static long expectedMillis(TestDescriptor test) {
+        TestSource source = test.getSource().orElse(null);
+        if (source instanceof MethodSource) {
+            MethodSource method = (MethodSource) source;
+            return TimingHistory.expectedMillis(method.getClassName(), method.getMethodName());
+        }
+        return Constants.defaultTestMillis;
+    }
+
+    private static TestDescriptor root(TestDescriptor descriptor) {
+        TestDescriptor root = descriptor;
+        while (root.getParent().isPresent()) {
+            root = root.getParent().get();
+        }
+        return root;
+    }
+
+    /**
+     * Tests which are assigned to the same shard.
+     */
+    private static final class Unit {
+        private final String key;
+        private final long millis;
+        private final List<TestDescriptor> tests;
+
+        private Unit(String key, long millis, List<TestDescriptor> tests) {
+            this.key = key;
+            this.millis = millis;
+            this.tests = tests;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package Utils;
+
+import org.openqa.selenium.json.Json;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * The ShardReportMerger class combines the reports of the shards of a run into one report.
+ * <p>
+ * Every shard writes its reports into its own directory with the subdirectories {@code surefire-reports} and
+ * {@code allure-results} and the result stream {@code test-results.jsonl}. The merger writes the same layout into
+ * the output directory:
+ * </p>
+ * <ul>
+ *     <li>Surefire XML reports of the same test class, which was split across shards, are merged into one test suite
+ *     with summed counters and times.</li>
+ *     <li>Allure results have unique file names and are copied as they are.</li>
+ *     <li>The result streams are concatenated, and the durations in them are saved to the {@link TimingHistory},
+ *     which the shards do not write themselves.</li>
+ * </ul>
+ * <p>
+ * Usage: {@code java Utils.ShardReportMerger <output directory> <shard directory>...}
+ * </p>
+ */
+public final class ShardReportMerger {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger();
+
+    private static final String[] COUNTERS = {"tests", "failures", "errors", "skipped"};
+
+    private ShardReportMerger() {
+    }
+
+    /**
+     * Merges the reports of the given shard directories.
+     *
+     * @param args The output directory followed by the shard directories.
+     * @throws Exception If a report cannot be read or written.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: java Utils.ShardReportMerger <output directory> <shard directory>...");
+            System.exit(2);
+        }
+        Path output = Paths.get(args[0]);
+        List<Path> shards = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            shards.add(Paths.get(args[i]));
+        }
+        merge(output, shards);
+        LoggerUtil.shutdown();
+    }
+
+    /**
+     * Merges the reports of the shards into the output directory.
+     *
+     * @param output The output directory.
+     * @param shards The report directories of the shards.
+     * @throws IOException If a report cannot be read or written.
+     */
+    public static void merge(Path output, List<Path> shards) throws IOException {
+        int suites = mergeSurefireReports(output.resolve("surefire-reports"), shards);
+        int results = copyAllureResults(output.resolve("allure-results"), shards);
+        int tests = mergeResultStreams(output.resolve("test-results.jsonl"), shards);
+        LOGGER.info(() -> "Merged " + shards.size() + " shards into " + output + ": " + suites + " test suites, "
+                + results + " Allure results, " + tests + " test results.");
+    }
+
+    private static int mergeSurefireReports(Path output, List<Path> shards) throws IOException {
+        Map<String, Document> suites = new TreeMap<>();
+        for (Path shard : shards) {
+            for (Path report : list(shard.resolve("surefire-reports"), "TEST-*.xml")) {
+                Document document = parse(report);
+                String name = report.getFileName().toString();
+                Document merged = suites.get(name);
+                if (merged == null) {
+                    suites.put(name, document);
+                } else {
+                    appendSuite(merged.getDocumentElement(), document.getDocumentElement());
+                }
+            }
+        }
+        Files.createDirectories(output);
+        for (Map.Entry<String, Document> suite : suites.entrySet()) {
+            write(suite.getValue(), output.resolve(suite.getKey()));
+        }
+        return suites.size();
+    }
+
+    /**
+     * Adds the test cases and counters of a test suite to the merged suite of the same test class.
+     */
+    private static void appendSuite(Element merged, Element suite) {
+        for (String counter : COUNTERS) {
+            merged.setAttribute(counter, Long.toString(longAttribute(merged, counter) + longAttribute(suite, counter)));
+        }
+        double time = doubleAttribute(merged, "time") + doubleAttribute(suite, "time");
+        merged.setAttribute("time", String.format(Locale.ROOT, "%.3f", time));
+        NodeList children = suite.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child instanceof Element && "testcase".equals(((Element) child).getTagName())) {
+                merged.appendChild(merged.getOwnerDocument().importNode(child, true));
+            }
+        }
+    }
+
+    private static int copyAllureResults(Path output, List<Path> shards) throws IOException {
+        Files.createDirectories(output);
+        int count = 0;
+        for (Path shard : shards) {
+            for (Path result : list(shard.resolve("allure-results"), "*")) {
+                Files.copy(result, output.resolve(result.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int mergeResultStreams(Path output, List<Path> shards) throws IOException {
+        Json json = new Json();
+        int count = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            for (Path shard : shards) {
+                Path stream = shard.resolve("test-results.jsonl");
+                if (!Files.isRegularFile(stream)) {
+                    continue;
+                }
+                try (BufferedReader reader = Files.newBufferedReader(stream, StandardCharsets.UTF_8)) {
+                    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                        if (line.trim().isEmpty()) {
+                            continue;
+                        }
+                        writer.write(line);
+                        writer.newLine();
+                        count++;
+                        Map<String, Object> record = json.toType(line, Json.MAP_TYPE);
+                        long wallMillis = Math.round(((Number) record.get("wallMillis")).doubleValue());
+                        // tests which failed before their setup started have no wall time
+                        if (!"DISABLED".equals(record.get("status")) && !"".equals(record.get("method")) && wallMillis > 0) {
+                            TimingHistory.record(String.valueOf(record.get("class")), String.valueOf(record.get("method")),
+                                    String.valueOf(record.get("id")), wallMillis);
+                        }
+                    }
+                }
+            }
+        }
+        TimingHistory.save();
+        return count;
+    }
+
+    private static List<Path> list(Path directory, String glob) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+                stream.forEach(files::add);
+            }
+        }
+        files.sort(null);
+        return files;
+    }
+
+    private static Document parse(Path report) throws IOException {
+        try {
+            DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            return builder.parse(report.toFile());
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Unable to parse " + report, e);
+        }
+    }
+
+    private static void write(Document document, Path file) throws IOException {
+        try {
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+            transformer.transform(new DOMSource(document), new StreamResult(file.toFile()));
+        } catch (TransformerException e) {
+            throw new IOException("Unable to write " + file, e);
+        }
+    }
+
+    private static long longAttribute(Element element, String name) {
+        String value = element.getAttribute(name);
+        return value.isEmpty() ? 0 : Long.parseLong(value);
+    }
+
+    private static double doubleAttribute(Element element, String name) {
+        String value = element.getAttribute(name).replace(",", "");
+        return value.isEmpty() ? 0 : Double.parseDouble(value);
+    }
+}
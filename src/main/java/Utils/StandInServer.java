@@ -0,0 +1,402 @@
+package Utils;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * The StandInServer class is an embedded HTTP server which stands in for the login application under test.
+ * <p>
+ * It serves a copy of the pages of {@code https://the-internet.herokuapp.com}: the login form at {@code /login},
+ * the form submission at {@code /authenticate}, the secure area at {@code /secure} and {@code /logout}. The pages
+ * use the same ids, classes and flash messages ({@code .flash.success}, {@code .flash.error}) as the original,
+ * so the page objects and {@link Locator} work against both. The only valid credentials are {@code tomsmith} /
+ * {@code SuperSecretPassword!}. A login is kept in a session cookie, like on the original site.
+ * </p>
+ * <p>
+ * A session is removed on {@code /logout}, and only the {@link Constants#standInMaxSessions} most recently used
+ * sessions are kept, so clients which never log out, e.g. the virtual users of a load run, do not fill the memory.
+ * A request with the cookie of a removed session gets a new session.
+ * </p>
+ * <p>
+ * The server runs in the test JVM on a free port of the loopback interface. It is started when the tests target it
+ * with {@code -Dtarget=standin}, see {@link Constants#baseURL}, and stopped at the end of the run. To simulate a real
+ * server, every response can be delayed by {@link Constants#standInLatencyMillis} plus a random jitter of up to
+ * {@link Constants#standInJitterMillis}, and a share of {@link Constants#standInErrorRate} of the requests is
+ * answered with {@code 503 Service Unavailable}.
+ * </p>
+ */
+public final class StandInServer {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger();
+
+    static final String USERNAME = "tomsmith";
+    static final String PASSWORD = "SuperSecretPassword!";
+    private static final String SESSION_COOKIE = "rack.session";
+
+    private static StandInServer instance;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String origin;
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+
+    /**
+     * Sessions by cookie value, holding the logged-in user and the flash message of the next page,
+     * in the order of their last use.
+     */
+    private final Map<String, Session> sessions;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+
+    /**
+     * A browser session of the stand-in application.
+     */
+    private static final class Session {
+        private volatile boolean loggedIn;
+        private volatile String flash;
+        private volatile String flashType;
+
+        private void flash(String type, String message) {
+            flashType = type;
+            flash = message;
+        }
+    }
+
+    private StandInServer(int port, long latencyMillis, long jitterMillis, double errorRate, int maxSessions) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.errorRate = errorRate;
+        this.sessions = Collections.synchronizedMap(new LinkedHashMap<String, Session>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+                return size() > maxSessions;
+            }
+        });
+        // Without TCP_NODELAY the separate writes of headers and body wait for the delayed ACK, about 40 ms per response.
+        // The JDK reads the property only once, when the first HttpServer of the JVM is created. Setting it here has
+        // no effect if another HttpServer was created earlier, so the Maven build and scripts/run-load.sh set it on
+        // the command line, and this is only the fallback for other launchers.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "standin-server-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        this.origin = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * Starts the server with the configuration of {@link Constants}, unless it is already running.
+     *
+     * @return The running server.
+     */
+    public static synchronized StandInServer start() {
+        if (instance == null) {
+            try {
+                instance = new StandInServer(Constants.standInPort, Constants.standInLatencyMillis,
+                        Constants.standInJitterMillis, Constants.standInErrorRate, Constants.standInMaxSessions);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to start the stand-in server.", e);
+            }
+            LOGGER.info(() -> "Stand-in server started at " + instance.origin + ".");
+        }
+        return instance;
+    }
+
+    /**
+     * Stops the server if it has been started. It is called at the end of the run.
+     */
+    public static synchronized void stop() {
+        if (instance != null) {
+            StandInServer stopped = instance;
+            instance = null;
+            stopped.server.stop(0);
+            stopped.executor.shutdownNow();
+            LOGGER.info(() -> "Stand-in server stopped: " + stopped.requests.sum() + " requests, "
+                    + stopped.injectedErrors.sum() + " injected errors, " + stopped.getSessionCount() + " sessions.");
+        }
+    }
+
+    /**
+     * Method which returns the URL of a path on the server, e.g. {@code http://127.0.0.1:41234/login}.
+     *
+     * @param path The absolute path.
+     * @return The URL of the path.
+     */
+    public String url(String path) {
+        return origin + path;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requests.increment();
+            simulateLatency();
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                injectedErrors.increment();
+                send(exchange, 503, "<html><body><h1>503 Service Unavailable</h1></body></html>");
+                return;
+            }
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            if ("GET".equals(method) && ("/login".equals(path) || "/".equals(path))) {
+                send(exchange, 200, loginPage(session(exchange)));
+            } else if ("POST".equals(method) && "/authenticate".equals(path)) {
+                authenticate(exchange);
+            } else if ("GET".equals(method) && "/secure".equals(path)) {
+                Session session = session(exchange);
+                if (session.loggedIn) {
+                    send(exchange, 200, securePage(session));
+                } else {
+                    session.flash("error", "You must login to view the secure area!");
+                    redirect(exchange, "/login");
+                }
+            } else if ("GET".equals(method) && "/logout".equals(path)) {
+                sessions.remove(sessionId(exchange));
+                // the flash message of the login page is kept in a new session
+                newSession(exchange).flash("success", "You logged out of the secure area!");
+                redirect(exchange, "/login");
+            } else {
+                send(exchange, 404, "<html><body><h1>Not Found</h1></body></html>");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void authenticate(HttpExchange exchange) throws IOException {
+        Map<String, String> form = parseForm(readBody(exchange.getRequestBody()));
+        Session session = session(exchange);
+        if (!USERNAME.equals(form.get("username"))) {
+            session.flash("error", "Your username is invalid!");
+            redirect(exchange, "/login");
+        } else if (!PASSWORD.equals(form.get("password"))) {
+            session.flash("error", "Your password is invalid!");
+            redirect(exchange, "/login");
+        } else {
+            session.loggedIn = true;
+            session.flash("success", "You logged into a secure area!");
+            redirect(exchange, "/secure");
+        }
+    }
+
+    /**
+     * Method which returns the session of the request, creating a new one and setting its cookie if there is none.
+     */
+    private Session session(HttpExchange exchange) {
+        String id = sessionId(exchange);
+        Session session = id == null ? null : sessions.get(id);
+        return session != null ? session : newSession(exchange);
+    }
+
+    /**
+     * Method which returns the value of the session cookie of the request, or null if there is none.
+     */
+    private static String sessionId(HttpExchange exchange) {
+        String id = null;
+        for (String header : exchange.getRequestHeaders().getOrDefault("Cookie", Collections.emptyList())) {
+            for (String cookie : header.split(";")) {
+                String[] pair = cookie.trim().split("=", 2);
+                if (pair.length == 2 && SESSION_COOKIE.equals(pair[0])) {
+                    id = pair[1];
+                }
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Creates a new session and sets its cookie on the response.
+     */
+    private Session newSession(HttpExchange exchange) {
+        String id = UUID.randomUUID().toString();
+        Session session = new Session();
+        sessions.put(id, session);
+        exchange.getResponseHeaders().add("Set-Cookie", SESSION_COOKIE + "=" + id + "; path=/; HttpOnly");
+        return session;
+    }
+
+    /**
+     * Method which returns the number of sessions the server keeps.
+     *
+     * @return The session count.
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    private void simulateLatency() {
+        long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        if (delay > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void redirect(HttpExchange exchange, String location) throws IOException {
+        exchange.getResponseHeaders().set("Location", location);
+        exchange.sendResponseHeaders(302, -1);
+    }
+
+    private static void send(HttpExchange exchange, int status, String html) throws IOException {
+        byte[] body = html.getBytes(StandardCharsets.UTF_8);
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", "text/html;charset=utf-8");
+        headers.set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+            body.write(buffer, 0, read);
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    static Map<String, String> parseForm(String body) throws IOException {
+        Map<String, String> form = new HashMap<>();
+        for (String field : body.split("&")) {
+            String[] pair = field.split("=", 2);
+            if (pair.length == 2) {
+                form.put(URLDecoder.decode(pair[0], "UTF-8"), URLDecoder.decode(pair[1], "UTF-8"));
+            }
+        }
+        return form;
+    }
+
+    /**
+     * Renders the flash message of the session and removes it, so it is shown only once.
+     */
+    private static String flash(Session session) {
+        String message = session.flash;
+        String type = session.flashType;
+        session.flash = null;
+        if (message == null) {
+            return "";
+        }
+        return "<div data-alert id=\"flash\" class=\"flash " + type + "\">\n"
+                + "            " + message + "\n"
+                + "            <a href=\"#\" class=\"close\">&times;</a>\n"
+                + "          </div>";
+    }
+
+    private static String page(Session session, String content) {
+        return "<!DOCTYPE html>\n"
+                + "<html class=\"no-js\" lang=\"en\">\n"
+                + "<head><meta charset=\"utf-8\"><title>The Internet</title></head>\n"
+                + "<body>\n"
+                + "  <div class=\"row\">\n"
+                + "    <div id=\"flash-messages\" class=\"large-12 columns\">\n"
+                + "      " + flash(session) + "\n"
+                + "    </div>\n"
+                + "  </div>\n"
+                + "  <div class=\"row\">\n"
+                + "    <div id=\"content\" class=\"large-12 columns\">\n"
+                + content
+                + "    </div>\n"
+                + "  </div>\n"
+                + "</body>\n"
+                + "</html>\n";
+    }
+
+    /**
+     * Method which renders the login page with a flash message, for the {@link StubWebDriver}.
+     *
+     * @param flashType The type of the flash message, {@code success} or {@code error}, or null for none.
+     * @param flash     The flash message, or null for none.
+     * @return The HTML of the page.
+     */
+    static String loginPage(String flashType, String flash) {
+        Session session = new Session();
+        if (flash != null) {
+            session.flash(flashType, flash);
+        }
+        return loginPage(session);
+    }
+
+    /**
+     * Method which renders the secure area with a flash message, for the {@link StubWebDriver}.
+     *
+     * @param flashType The type of the flash message, {@code success} or {@code error}, or null for none.
+     * @param flash     The flash message, or null for none.
+     * @return The HTML of the page.
+     */
+    static String securePage(String flashType, String flash) {
+        Session session = new Session();
+        if (flash != null) {
+            session.flash(flashType, flash);
+        }
+        return securePage(session);
+    }
+
+    private static String loginPage(Session session) {
+        return page(session, "<div class=\"example\">\n"
+                + "  <h2>Login Page</h2>\n"
+                + "  <h4 class=\"subheader\">This is where you can log into the secure area. Enter <em>tomsmith</em> for the username"
+                + " and <em>SuperSecretPassword!</em> for the password. If the information is wrong you should see error messages.</h4>\n"
+                + "  <form name=\"login\" method=\"post\" action=\"/authenticate\" id=\"login\">\n"
+                + "    <div class=\"row\">\n"
+                + "      <div class=\"large-6 small-12 columns\">\n"
+                + "        <label for=\"username\">Username</label>\n"
+                + "        <input type=\"text\" name=\"username\" id=\"username\">\n"
+                + "      </div>\n"
+                + "    </div>\n"
+                + "    <div class=\"row\">\n"
+                + "      <div class=\"large-6 small-12 columns\">\n"
+                + "        <label for=\"password\">Password</label>\n"
+                + "        <input type=\"password\" name=\"password\" id=\"password\">\n"
+                + "      </div>\n"
+                + "    </div>\n"
+                + "    <button class=\"radius\" type=\"submit\"><i class=\"fa fa-2x fa-sign-in\"> Login</i></button>\n"
+                + "  </form>\n"
+                + "</div>\n");
+    }
+
+    private static String securePage(Session session) {
+        return page(session, "<div class=\"example\">\n"
+                + "  <h2><i class=\"icon-lock\"></i> Secure Area</h2>\n"
+                + "  <h4 class=\"subheader\">Welcome to the Secure Area. When you are done click logout below.</h4>\n"
+                + "  <a class=\"button secondary radius\" href=\"/logout\"><i class=\"icon-2x icon-signout\"> Logout</i></a>\n"
+                + "</div>\n");
+    }
+}
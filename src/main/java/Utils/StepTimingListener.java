@@ -0,0 +1,40 @@
+package Utils;
+
+import io.qameta.allure.listener.StepLifecycleListener;
+import io.qameta.allure.model.StepResult;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The StepTimingListener class is an Allure listener which records the duration of every {@code @Step} in {@link ActionTimings}.
+ * <p>
+ * Steps are keyed by their name up to the first colon, so that "Enter username: tomsmith" and "Enter username: admin"
+ * are counted as the same step. Nested steps are timed separately.
+ * The listener is registered in {@code META-INF/services/io.qameta.allure.listener.LifecycleListener}.
+ * </p>
+ */
+public class StepTimingListener implements StepLifecycleListener {
+
+    /**
+     * Start times of the steps currently running on each thread, innermost first.
+     */
+    private static final ThreadLocal<Deque<Long>> starts = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Override
+    public void beforeStepStart(StepResult result) {
+        starts.get().push(System.nanoTime());
+    }
+
+    @Override
+    public void afterStepStop(StepResult result) {
+        Deque<Long> running = starts.get();
+        if (running.isEmpty()) {
+            return;
+        }
+        long start = running.pop();
+        String name = result.getName() == null ? "unnamed" : result.getName();
+        int colon = name.indexOf(':');
+        ActionTimings.record(ActionTimings.Action.STEP, colon < 0 ? name : name.substring(0, colon), start);
+    }
+}
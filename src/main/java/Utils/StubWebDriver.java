@@ -0,0 +1,207 @@
+package Utils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The StubWebDriver class is a WebDriver which answers every request from scripted pages in memory.
+ * <p>
+ * It works like the {@link HttpSessionDriver}: pages are parsed into an {@link HtmlDocument}, elements are
+ * found with CSS selectors, forms are submitted and redirects and cookies are handled. But instead of going over
+ * the network, a request is answered by the route of its method and path. There is no browser, no socket and no
+ * waiting, so the driver shows what the framework layer costs on its own: the page objects, {@link Base},
+ * {@link ElementCache}, {@link ActionTimings} and the logging. It is used by the JMH benchmarks, see
+ * {@code src/jmh/java}.
+ * </p>
+ * <p>
+ * Routes are scripted with {@link #page(String, String)} and {@link #route(String, String, Function)};
+ * {@link #loginApp()} scripts the login application of the stand-in server. Requests without a route are
+ * answered with {@code 404 Not Found}. Like the HttpSessionDriver, a driver is not thread-safe.
+ * </p>
+ */
+public final class StubWebDriver extends HttpSessionDriver {
+
+    /**
+     * The name of the browser reported in the capabilities of the driver.
+     */
+    public static final String BROWSER_NAME = "stub";
+
+    /**
+     * The origin of the scripted pages. The host is never resolved.
+     */
+    public static final String ORIGIN = "http://stub.invalid";
+
+    private static final String NOT_FOUND = "<html><body><h1>Not Found</h1></body></html>";
+
+    private final Map<String, Function<Map<String, String>, Response>> routes = new HashMap<>();
+    private long requests;
+
+    /**
+     * Method which returns the URL of a path of the scripted pages, e.g. {@code http://stub.invalid/login}.
+     *
+     * @param path The absolute path.
+     * @return The URL of the path.
+     */
+    public String url(String path) {
+        return ORIGIN + path;
+    }
+
+    /**
+     * Scripts the page which is returned for GET requests of a path.
+     *
+     * @param path The absolute path, without the query.
+     * @param html The HTML of the page.
+     * @return This driver.
+     */
+    public StubWebDriver page(String path, String html) {
+        Response response = Response.page(html);
+        return route("GET", path, parameters -> response);
+    }
+
+    /**
+     * Scripts the response to the requests of a method and path.
+     *
+     * @param method  The request method, e.g. {@code POST}.
+     * @param path    The absolute path, without the query.
+     * @param handler The function which returns the response for the parameters of the query and the form.
+     * @return This driver.
+     */
+    public StubWebDriver route(String method, String path, Function<Map<String, String>, Response> handler) {
+        routes.put(method + " " + path, handler);
+        return this;
+    }
+
+    /**
+     * Method which returns the number of requests answered by the driver, including redirects.
+     *
+     * @return The number of requests.
+     */
+    public long getRequestCount() {
+        return requests;
+    }
+
+    /**
+     * Creates a driver with the pages of the {@link StandInServer}: the login form at {@code /login}, the form
+     * submission at {@code /authenticate}, the secure area at {@code /secure} and {@code /logout}.
+     * The login and the flash message are kept by the driver, since it stands for a single session.
+     *
+     * @return The driver.
+     */
+    public static StubWebDriver loginApp() {
+        StubWebDriver driver = new StubWebDriver();
+        String[] flash = new String[2];
+        boolean[] loggedIn = new boolean[1];
+        Function<Map<String, String>, Response> login = parameters -> {
+            Response response = Response.page(StandInServer.loginPage(flash[0], flash[1]));
+            flash[1] = null;
+            return response;
+        };
+        return driver
+                .route("GET", "/", login)
+                .route("GET", "/login", login)
+                .route("POST", "/authenticate", form -> {
+                    loggedIn[0] = StandInServer.USERNAME.equals(form.get("username"))
+                            && StandInServer.PASSWORD.equals(form.get("password"));
+                    flash[0] = loggedIn[0] ? "success" : "error";
+                    flash[1] = loggedIn[0] ? "You logged into a secure area!"
+                            : StandInServer.USERNAME.equals(form.get("username"))
+                            ? "Your password is invalid!" : "Your username is invalid!";
+                    return Response.redirect(loggedIn[0] ? "/secure" : "/login");
+                })
+                .route("GET", "/secure", parameters -> {
+                    if (!loggedIn[0]) {
+                        flash[0] = "error";
+                        flash[1] = "You must login to view the secure area!";
+                        return Response.redirect("/login");
+                    }
+                    Response response = Response.page(StandInServer.securePage(flash[0], flash[1]));
+                    flash[1] = null;
+                    return response;
+                })
+                .route("GET", "/logout", parameters -> {
+                    loggedIn[0] = false;
+                    flash[0] = "success";
+                    flash[1] = "You logged out of the secure area!";
+                    return Response.redirect("/login");
+                });
+    }
+
+    @Override
+    String browserName() {
+        return BROWSER_NAME;
+    }
+
+    /**
+     * Answers a request with the route of its method and path.
+     */
+    @Override
+    Reply exchange(String method, URI uri, Map<String, List<String>> headers, String body) throws IOException {
+        requests++;
+        Function<Map<String, String>, Response> handler = routes.get(method + " " + uri.getPath());
+        if (handler == null) {
+            return new Reply(404, Collections.emptyMap(), NOT_FOUND);
+        }
+        Map<String, String> parameters = new HashMap<>();
+        if (uri.getRawQuery() != null) {
+            parameters.putAll(StandInServer.parseForm(uri.getRawQuery()));
+        }
+        if (body != null) {
+            parameters.putAll(StandInServer.parseForm(body));
+        }
+        Response response = handler.apply(parameters);
+        Map<String, List<String>> responseHeaders = response.location == null
+                ? Collections.emptyMap() : Collections.singletonMap("Location", Collections.singletonList(response.location));
+        return new Reply(response.status, responseHeaders, response.html);
+    }
+
+    /**
+     * The scripted response to a request.
+     */
+    public static final class Response {
+        private final int status;
+        private final String html;
+        private final String location;
+
+        private Response(int status, String html, String location) {
+            this.status = status;
+            this.html = html;
+            this.location = location;
+        }
+
+        /**
+         * Method which returns a page with the status {@code 200 OK}.
+         *
+         * @param html The HTML of the page.
+         * @return The response.
+         */
+        public static Response page(String html) {
+            return new Response(200, html, null);
+        }
+
+        /**
+         * Method which returns a page with another status, e.g. an error page.
+         *
+         * @param status The HTTP status.
+         * @param html   The HTML of the page.
+         * @return The response.
+         */
+        public static Response status(int status, String html) {
+            return new Response(status, html, null);
+        }
+
+        /**
+         * Method which returns a redirect with the status {@code 302 Found}.
+         *
+         * @param location The location, relative to the request.
+         * @return The response.
+         */
+        public static Response redirect(String location) {
+            return new Response(302, "", location);
+        }
+    }
+}
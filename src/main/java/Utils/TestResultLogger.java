@@ -1,33 +1,61 @@
 package Utils;
 
 import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.api.extension.TestWatcher;
+import org.junit.platform.commons.support.AnnotationSupport;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /**
  * The TestResultLogger class is a JUnit 5 extension that implements the TestWatcher and AfterAllCallback
  * interfaces to provide callbacks for test execution events. It logs information about test status and
  * provides a summary after all tests in a test container have been executed.
+ * <p>
+ * The logger is safe to use while tests run in parallel: results are counted with lock-free counters and the
+ * durations are kept in {@link LatencyHistogram}s per test class, per browser run of a class and per tag. For every
+ * test it measures the wall time from the start of its setup, including the lease of its browser session, to its
+ * result, the setup time before the test method runs and the time the test thread spent in driver actions. Every finished test is streamed as one JSON line to {@link Constants#resultsFile},
+ * so memory does not grow with the number of tests, and the wall times are kept in the {@link TimingHistory}.
+ * The run summary with percentile durations is logged by {@link #logRunSummary()} at the end of the run.
+ * </p>
  */
-public class TestResultLogger implements TestWatcher, AfterAllCallback {
+public class TestResultLogger implements TestWatcher, AfterAllCallback, BeforeEachCallback,
+        BeforeTestExecutionCallback, AfterTestExecutionCallback {
 
     /**
      * The logger instance for this class.
      */
     protected static final Logger LOGGER = LoggerUtil.getLogger();
 
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(TestResultLogger.class);
+
+    /**
+     * Result counters and durations of the whole run, of every test class and of every tag.
+     */
+    private static final Summary runSummary = new Summary();
+    private static final Map<String, Summary> classSummaries = new ConcurrentHashMap<>();
+    private static final Map<String, Summary> tagSummaries = new ConcurrentHashMap<>();
+
     /**
-     * List to store the status of each test.
+     * Writer of the result stream, opened with the first result.
      */
-    private List<TestResultStatus> testResultsStatus = new ArrayList<>();
+    private static volatile JsonLinesWriter resultStream;
 
     /**
      * Enum representing the possible test result statuses.
@@ -36,6 +64,107 @@ public class TestResultLogger implements TestWatcher, AfterAllCallback {
         SUCCESSFUL, ABORTED, FAILED, DISABLED;
     }
 
+    /**
+     * Start times of the phases of one test, kept in the extension store of the test.
+     */
+    private static final class Timing {
+        private final long setupStart = System.nanoTime();
+        private final long startedAt = System.currentTimeMillis();
+        private long executionStart;
+        private long executionEnd;
+        private long driverNanosAtStart;
+        private long driverNanos;
+    }
+
+    /**
+     * Result counters and durations of a group of tests.
+     */
+    private static final class Summary {
+        private final Map<TestResultStatus, LongAdder> counts = new EnumMap<>(TestResultStatus.class);
+        private final LatencyHistogram wallTime = new LatencyHistogram();
+
+        private Summary() {
+            for (TestResultStatus status : TestResultStatus.values()) {
+                counts.put(status, new LongAdder());
+            }
+        }
+
+        /**
+         * Counts a result and records its wall time, a negative wall time is not recorded.
+         */
+        private void add(TestResultStatus status, long wallNanos) {
+            counts.get(status).increment();
+            if (status != TestResultStatus.DISABLED && wallNanos >= 0) {
+                wallTime.record(wallNanos);
+            }
+        }
+
+        @Override
+        public String toString() {
+            Map<TestResultStatus, Long> nonZero = new EnumMap<>(TestResultStatus.class);
+            counts.forEach((status, count) -> {
+                if (count.sum() > 0) {
+                    nonZero.put(status, count.sum());
+                }
+            });
+            return nonZero + " wall time p50=" + millis(wallTime.getPercentile(50)) + " ms, p90="
+                    + millis(wallTime.getPercentile(90)) + " ms, p99=" + millis(wallTime.getPercentile(99))
+                    + " ms, max=" + millis(wallTime.getMax()) + " ms";
+        }
+    }
+
+    /**
+     * Called before the setup of a test, i.e. before its {@code @BeforeEach} methods.
+     * The timing has usually been started already by the {@link DriverSessionExtension}.
+     *
+     * @param context The extension context for the test.
+     */
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        startTiming(context);
+    }
+
+    /**
+     * Starts the timing of a test unless it has been started already.
+     * <p>
+     * The {@link DriverSessionExtension} is registered by the test base class and its callbacks run before the ones
+     * of this extension. It calls this method before it leases or binds the session of the test, so the wall and
+     * setup times include acquiring, warming up and recycling the session.
+     * </p>
+     *
+     * @param context The extension context for the test.
+     */
+    static void startTiming(ExtensionContext context) {
+        context.getStore(NAMESPACE).getOrComputeIfAbsent(Timing.class, key -> new Timing(), Timing.class);
+    }
+
+    /**
+     * Called right before the test method is invoked.
+     *
+     * @param context The extension context for the test.
+     */
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        Timing timing = context.getStore(NAMESPACE).get(Timing.class, Timing.class);
+        if (timing != null) {
+            timing.executionStart = System.nanoTime();
+            timing.driverNanosAtStart = ActionTimings.threadDriverNanos();
+        }
+    }
+
+    /**
+     * Called right after the test method has returned or thrown.
+     *
+     * @param context The extension context for the test.
+     */
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        Timing timing = context.getStore(NAMESPACE).get(Timing.class, Timing.class);
+        if (timing != null) {
+            timing.executionEnd = System.nanoTime();
+            timing.driverNanos = ActionTimings.threadDriverNanos() - timing.driverNanosAtStart;
+        }
+    }
 
     /**
      * Called when a test is disabled.
@@ -45,8 +174,8 @@ public class TestResultLogger implements TestWatcher, AfterAllCallback {
      */
     @Override
     public void testDisabled(ExtensionContext context, Optional<String> reason) {
-        LOGGER.info("Test Disabled for test: " + context.getDisplayName() + " with reason: " + reason.orElse("No reason provided"));
-        testResultsStatus.add(TestResultStatus.DISABLED);
+        LOGGER.info(() -> "Test Disabled for test: " + context.getDisplayName() + " with reason: " + reason.orElse("No reason provided"));
+        recordResult(context, TestResultStatus.DISABLED, null);
     }
 
     /**
@@ -56,8 +185,8 @@ public class TestResultLogger implements TestWatcher, AfterAllCallback {
      */
     @Override
     public void testSuccessful(ExtensionContext context) {
-        LOGGER.info("Test passed: " + context.getDisplayName());
-        testResultsStatus.add(TestResultStatus.SUCCESSFUL);
+        LOGGER.info(() -> "Test passed: " + context.getDisplayName());
+        recordResult(context, TestResultStatus.SUCCESSFUL, null);
     }
 
     /**
@@ -68,8 +197,8 @@ public class TestResultLogger implements TestWatcher, AfterAllCallback {
      */
     @Override
     public void testAborted(ExtensionContext context, Throwable cause) {
-        LOGGER.warning("Test aborted for test: " + context.getDisplayName() + " with cause: " + cause.getMessage());
-        testResultsStatus.add(TestResultStatus.ABORTED);
+        LOGGER.warning(() -> "Test aborted for test: " + context.getDisplayName() + " with cause: " + cause.getMessage());
+        recordResult(context, TestResultStatus.ABORTED, cause);
     }
 
     /**
@@ -80,22 +209,149 @@ public class TestResultLogger implements TestWatcher, AfterAllCallback {
      */
     @Override
     public void testFailed(ExtensionContext context, Throwable cause) {
-        LOGGER.severe("Test failed for test: " + context.getDisplayName() + " with cause: " + cause.getMessage());
-        testResultsStatus.add(TestResultStatus.FAILED);
+        LOGGER.severe(() -> "Test failed for test: " + context.getDisplayName() + " with cause: " + cause.getMessage());
+        recordResult(context, TestResultStatus.FAILED, cause);
+    }
+
+    /**
+     * Counts the result of a finished test, adds its durations to the summaries and streams it to the result file.
+     *
+     * @param context The extension context for the finished test.
+     * @param status  The status of the test.
+     * @param cause   The throwable cause of a failed or aborted test, null otherwise.
+     */
+    private void recordResult(ExtensionContext context, TestResultStatus status, Throwable cause) {
+        long finished = System.nanoTime();
+        Timing timing = context.getStore(NAMESPACE).get(Timing.class, Timing.class);
+        long wallNanos = timing == null ? -1 : finished - timing.setupStart;
+        long setupNanos = timing == null || timing.executionStart == 0 ? 0 : timing.executionStart - timing.setupStart;
+        long executionNanos = timing == null || timing.executionEnd == 0 ? 0 : timing.executionEnd - timing.executionStart;
+        String className = context.getTestClass().map(Class::getName).orElse("");
+        Optional<Browser> browser = BrowserInvocationProvider.findBrowser(context);
+
+        runSummary.add(status, wallNanos);
+        classSummaries.computeIfAbsent(summaryKey(context), key -> new Summary()).add(status, wallNanos);
+        for (String tag : context.getTags()) {
+            tagSummaries.computeIfAbsent(tag, key -> new Summary()).add(status, wallNanos);
+        }
+        if (status != TestResultStatus.DISABLED && timing != null) {
+            context.getTestMethod().ifPresent(method ->
+                    TimingHistory.record(className, method.getName(), context.getUniqueId(), TimeUnit.NANOSECONDS.toMillis(wallNanos)));
+        }
+        emitResultEvent(context, status);
+
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("id", context.getUniqueId());
+        record.put("class", className);
+        record.put("method", context.getTestMethod().map(Method::getName).orElse(""));
+        record.put("displayName", context.getDisplayName());
+        record.put("tags", new TreeSet<>(context.getTags()));
+        record.put("browser", browser.map(Browser::getName).orElse(null));
+        record.put("status", status.name());
+        record.put("startedAt", timing == null ? System.currentTimeMillis() : timing.startedAt);
+        record.put("wallMillis", millis(Math.max(0, wallNanos)));
+        record.put("setupMillis", millis(setupNanos));
+        record.put("executionMillis", millis(executionNanos));
+        record.put("driverMillis", millis(timing == null ? 0 : timing.driverNanos));
+        record.put("thread", Thread.currentThread().getName());
+        if (cause != null) {
+            record.put("error", String.valueOf(cause.getMessage()));
+        }
+        resultStream().write(record);
+    }
+
+    /**
+     * Emits a {@link FlightEvents.TestResult} event when Flight Recorder is recording.
+     *
+     * @param context The extension context for the finished test.
+     * @param status  The status of the test.
+     */
+    private void emitResultEvent(ExtensionContext context, TestResultStatus status) {
+        FlightEvents.TestResult event = new FlightEvents.TestResult();
+        if (event.shouldCommit()) {
+            event.testClass = context.getTestClass().map(Class::getName).orElse(null);
+            event.test = context.getDisplayName();
+            event.status = status.name();
+            event.commit();
+        }
     }
 
     /**
      * Callback method that is invoked after all tests in a test container have been executed.
-     * It provides a summary of the test results, including counts for each test result status.
+     * It provides a summary of the test results, including counts for each test result status and percentile durations.
      *
      * @param context The extension context for the executed tests.
      * @throws Exception If an exception occurs during the execution of this method.
      */
     @Override
     public void afterAll(ExtensionContext context) throws Exception {
-        Map<TestResultStatus, Long> summary = testResultsStatus.stream()
-                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        String className = context.getRequiredTestClass().getName();
+        if (AnnotationSupport.isAnnotated(context.getRequiredTestClass(), BrowserTest.class)) {
+            for (Browser browser : Browser.configured()) {
+                Summary summary = classSummaries.get(className + " [" + browser.getName() + "]");
+                LOGGER.info(() -> "Test result summary for: " + context.getDisplayName() + " [" + browser.getName() + "]"
+                        + (summary == null ? "{}" : summary.toString()));
+            }
+            return;
+        }
+        Summary summary = classSummaries.get(className);
+
+        LOGGER.info(() -> "Test result summary for: " + context.getDisplayName() + (summary == null ? "{}" : summary.toString()));
+    }
+
+    /**
+     * Logs the summary of the whole run, per test class and per tag, closes the result stream and saves the
+     * durations of the run to the {@link TimingHistory}.
+     * It is called once at the end of the run.
+     */
+    public static void logRunSummary() {
+        if (runSummary.wallTime.getCount() == 0 && resultStream == null) {
+            return;
+        }
+        StringBuilder report = new StringBuilder("Test run summary: ").append(runSummary);
+        new TreeMap<>(classSummaries).forEach((name, summary) -> report.append("\n  class ").append(name).append(": ").append(summary));
+        new TreeMap<>(tagSummaries).forEach((name, summary) -> report.append("\n  tag ").append(name).append(": ").append(summary));
+        LOGGER.info(report.toString());
+        synchronized (TestResultLogger.class) {
+            if (resultStream != null) {
+                resultStream.close();
+                resultStream = null;
+            }
+        }
+        TimingHistory.save();
+    }
+
+    /**
+     * Method which returns the key of the class summary of a test, the name of the test class followed by the
+     * browser when the class runs per browser.
+     */
+    private static String summaryKey(ExtensionContext context) {
+        String className = context.getTestClass().map(Class::getName).orElse("");
+        return BrowserInvocationProvider.findBrowser(context).map(browser -> className + " [" + browser.getName() + "]").orElse(className);
+    }
+
+    /**
+     * Method which returns the writer of the result stream, opening the file on first use.
+     */
+    private static JsonLinesWriter resultStream() {
+        JsonLinesWriter stream = resultStream;
+        if (stream == null) {
+            synchronized (TestResultLogger.class) {
+                stream = resultStream;
+                if (stream == null) {
+                    try {
+                        stream = new JsonLinesWriter(Paths.get(Constants.resultsFile));
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Unable to open result stream " + Constants.resultsFile, e);
+                    }
+                    resultStream = stream;
+                }
+            }
+        }
+        return stream;
+    }
 
-        LOGGER.info("Test result summary for: "+context.getDisplayName()+summary.toString());
+    private static double millis(long nanos) {
+        return Math.round(nanos / (double) TimeUnit.MILLISECONDS.toNanos(1) * 1000) / 1000.0;
     }
 }
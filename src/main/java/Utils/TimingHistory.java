@@ -0,0 +1,191 @@
+package Utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * The TimingHistory class keeps the expected duration of every test and every test class between runs.
+ * <p>
+ * The durations are stored in a small properties file, {@link Constants#timingHistoryFile}, with one entry per
+ * test ({@code class#method}) and one per test class. During the run {@link TestResultLogger} reports the wall
+ * time of every finished test, and at the end of the run the new durations are averaged with the stored ones
+ * and the file is rewritten. The expected durations are used by {@link LongestFirstOrderer} to start the longest
+ * tests first.
+ * </p>
+ * <p>
+ * The durations are kept per run of a test class: the wall times of the tests of one run, and of the invocations
+ * of a parameterized test within that run, are added up. A class which runs several times at once, e.g. once per
+ * browser, is expected to take as long as its longest run, not as long as all runs together.
+ * </p>
+ * <p>
+ * Tests without history are expected to take as long as the average stored test, or
+ * {@link Constants#defaultTestMillis} when the file is empty. The average is computed once when the file is loaded.
+ * </p>
+ */
+public final class TimingHistory {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger();
+
+    /**
+     * Weight of the latest run in the stored average, the older runs share the rest.
+     */
+    private static final double LATEST_WEIGHT = 0.5;
+
+    /**
+     * The segments of a unique id which follow the run of the test class.
+     */
+    private static final String[] TEST_SEGMENTS = {"/[method:", "/[test-template:", "/[test-factory:"};
+
+    private static final Map<String, Long> stored = load(Paths.get(Constants.timingHistoryFile));
+    private static final long defaultMillis = averageTestMillis(stored);
+
+    /**
+     * The durations of this run, per test or class and per run of the test class.
+     */
+    private static final Map<String, Map<String, LongAdder>> measured = new ConcurrentHashMap<>();
+
+    private TimingHistory() {
+    }
+
+    /**
+     * Adds the wall time of a finished test to the durations of the run of its test class.
+     *
+     * @param className  The name of the test class.
+     * @param methodName The name of the test method.
+     * @param uniqueId   The unique id of the test, which identifies the run of the test class.
+     * @param millis     The wall time of the test in milliseconds.
+     */
+    public static void record(String className, String methodName, String uniqueId, long millis) {
+        String run = runOf(uniqueId);
+        add(className + "#" + methodName, run, millis);
+        add(className, run, millis);
+    }
+
+    private static void add(String key, String run, long millis) {
+        measured.computeIfAbsent(key, name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(run, name -> new LongAdder()).add(millis);
+    }
+
+    /**
+     * Method which returns the unique id of the run of a test class a test belongs to, e.g. the invocation of a
+     * {@link BrowserTest} class for one browser.
+     *
+     * @param uniqueId The unique id of the test.
+     * @return The unique id up to the test class or its invocation.
+     */
+    static String runOf(String uniqueId) {
+        int end = uniqueId.length();
+        for (String segment : TEST_SEGMENTS) {
+            int index = uniqueId.indexOf(segment);
+            if (index >= 0 && index < end) {
+                end = index;
+            }
+        }
+        return uniqueId.substring(0, end);
+    }
+
+    /**
+     * Method which returns the expected duration of a test method.
+     *
+     * @param className  The name of the test class.
+     * @param methodName The name of the test method.
+     * @return The expected duration in milliseconds.
+     */
+    public static long expectedMillis(String className, String methodName) {
+        Long millis = stored.get(className + "#" + methodName);
+        return millis != null ? millis : defaultMillis;
+    }
+
+    /**
+     * Method which returns the expected duration of all tests of a test class.
+     *
+     * @param className The name of the test class.
+     * @param testCount The number of tests in the class, used when the class has no history.
+     * @return The expected duration in milliseconds.
+     */
+    public static long expectedClassMillis(String className, int testCount) {
+        Long millis = stored.get(className);
+        return millis != null ? millis : defaultMillis * Math.max(1, testCount);
+    }
+
+    /**
+     * Averages the durations of this run into the stored ones and rewrites the history file.
+     * The duration of this run is the one of the longest run of the test class.
+     * It is called once at the end of the run, entries of tests which did not run are kept.
+     * A shard of a sharded run does not save, the durations of all shards are saved by {@link ShardReportMerger}.
+     */
+    public static synchronized void save() {
+        if (measured.isEmpty()) {
+            return;
+        }
+        if (Constants.shardCount > 1) {
+            measured.clear();
+            return;
+        }
+        Properties properties = new Properties();
+        stored.forEach((key, millis) -> properties.setProperty(key, Long.toString(millis)));
+        measured.forEach((key, runs) -> {
+            Long previous = stored.get(key);
+            long latest = runs.values().stream().mapToLong(LongAdder::sum).max().orElse(0);
+            long average = previous == null ? latest : Math.round(LATEST_WEIGHT * latest + (1 - LATEST_WEIGHT) * previous);
+            properties.setProperty(key, Long.toString(average));
+        });
+        Path file = Paths.get(Constants.timingHistoryFile).toAbsolutePath();
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                properties.store(writer, "Expected test durations in milliseconds");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            measured.clear();
+        } catch (IOException e) {
+            LOGGER.warning(() -> "Unable to write timing history " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static long averageTestMillis(Map<String, Long> stored) {
+        long sum = 0;
+        int count = 0;
+        for (Map.Entry<String, Long> entry : stored.entrySet()) {
+            if (entry.getKey().indexOf('#') >= 0) {
+                sum += entry.getValue();
+                count++;
+            }
+        }
+        return count == 0 ? Constants.defaultTestMillis : sum / count;
+    }
+
+    private static Map<String, Long> load(Path file) {
+        Map<String, Long> durations = new ConcurrentHashMap<>();
+        if (!Files.isRegularFile(file)) {
+            return durations;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            LOGGER.warning(() -> "Unable to read timing history " + file + ": " + e.getMessage());
+            return durations;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            try {
+                durations.put(key, Long.parseLong(properties.getProperty(key).trim()));
+            } catch (NumberFormatException e) {
+                LOGGER.warning(() -> "Ignoring invalid timing history entry " + key);
+            }
+        }
+        return durations;
+    }
+}
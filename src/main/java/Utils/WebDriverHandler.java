@@ -1,11 +1,22 @@
 package Utils;
 
-import org.junit.jupiter.api.AfterAll;
-import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.openqa.selenium.PageLoadStrategy;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
 import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.logging.LoggingPreferences;
+import org.openqa.selenium.remote.Augmenter;
+import org.openqa.selenium.remote.RemoteWebDriver;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -15,19 +26,52 @@ import java.util.logging.Logger;
  * This class encapsulates the setup and teardown of WebDriver instances,
  * allowing for easier management and configuration of browser automation.
  * </p>
+ * <p>
+ * Browser sessions are leased from the {@link WebDriverPool} by the {@link DriverSessionExtension}
+ * before all the tests within the test class and handed back after they have finished,
+ * so every test class that runs in parallel works with its own browser.
+ * </p>
+ * <p>
+ * A test class annotated with {@link BrowserTest} runs once for every browser set with {@code -Dbrowser},
+ * and the runs of the different browsers are executed at the same time. Other test classes run against
+ * the first configured browser.
+ * </p>
+ * <p>
+ * When a test fails, the {@link FailureArtifacts} extension captures the screenshot, the page source and the
+ * browser console logs of its session.
+ * </p>
  */
+@ExtendWith({DriverSessionExtension.class, FailureArtifacts.class})
 public abstract class WebDriverHandler {
 
-    protected static WebDriver driver;
-
     protected static final Logger LOGGER = LoggerUtil.getLogger();
 
     /**
-     * This method initializes an instance of the Chrome WebDriver
-     * It has @BeforeAll JUnit annotation which means that it will be executed before all the tests within the test class
-     * -@BeforeAll methods are executed before any test methods in the test class, and they need to be called on the class itself,
-     * not on an instance of the class. The static keyword indicates that the method belongs to the class itself, and it can be
-     * invoked without creating an instance of the class.
+     * The chromedriver process shared by all sessions of the JVM when warm start is enabled.
+     */
+    private static ChromeDriverService driverService;
+
+    /**
+     * This method initializes an instance of the WebDriver of the given browser.
+     * It is used by the {@link WebDriverPool} of the browser whenever a new browser session has to be launched.
+     *
+     * @param browser The browser to launch.
+     * @return A new WebDriver instance.
+     */
+    public static WebDriver createDriver(Browser browser) {
+        switch (browser) {
+            case FIREFOX:
+                return createFirefoxDriver();
+            case HTTP:
+                return new HttpSessionDriver();
+            case CHROME:
+            default:
+                return createChromeDriver();
+        }
+    }
+
+    /**
+     * This method initializes an instance of the Chrome WebDriver.
      * <p>
      *     The method sets up the Chrome WebDriver with headless mode enabled along with additional
      *     options to configure the driver for optimal performance and compatibility.
@@ -41,45 +85,121 @@ public abstract class WebDriverHandler {
      *         <li>{@code --disable-dev-shm-usage}: Disables the use of /dev/shm (shared memory) for temporary files.</li>
      *         <li>{@code --no-sandbox}: Disables the Chrome sandbox, which is necessary when running Chrome in a container environment.</li>
      *     </ul>
+     *     The implicit wait of {@link Constants#implicitWaitMillis} is applied when it is configured,
+     *     the page load strategy is taken from {@link Constants#pageLoadStrategy} and the {@link NetworkProfile}
+     *     is installed when requests should be blocked.
      * </p>
      *
      * <p>
      *     The method initializes the ChromeDriver instance with the configured options.
-     *     Upon successful initialization, an INFO log message is generated indicating that the WebDriver is initialized.
+     *     When warm start is enabled ({@link Constants#warmSessions}), the session is opened against one long-lived
+     *     chromedriver process instead of starting a new chromedriver process for every browser.
      * </p>
+     *
+     * @return A new ChromeDriver instance.
      */
-    @BeforeAll
-    public static void setUp() {
+    private static WebDriver createChromeDriver() {
         ChromeOptions options = new ChromeOptions();
         options.addArguments("--headless");
         options.addArguments("--disable-gpu");
         options.addArguments("--disable-dev-shm-usage");
         options.addArguments("--no-sandbox");
+        if (Constants.implicitWaitMillis > 0) {
+            options.setImplicitWaitTimeout(Duration.ofMillis(Constants.implicitWaitMillis));
+        }
+        options.setPageLoadStrategy(PageLoadStrategy.fromString(Constants.pageLoadStrategy));
+        if (Constants.captureArtifacts) {
+            // Keep the console messages of the page for the failure artifacts
+            LoggingPreferences logging = new LoggingPreferences();
+            logging.enable(LogType.BROWSER, Level.ALL);
+            options.setCapability(ChromeOptions.LOGGING_PREFS, logging);
+        }
+
+        WebDriver driver;
+        if (Constants.warmSessions > 0) {
+            // A RemoteWebDriver does not stop the shared service when the session quits
+            driver = new RemoteWebDriver(driverService().getUrl(), options);
+            if (NetworkProfile.isEnabled()) {
+                driver = new Augmenter().augment(driver);
+            }
+        } else {
+            // Initialize ChromeDriver
+            driver = new ChromeDriver(options);
+        }
+        if (NetworkProfile.isEnabled()) {
+            NetworkProfile.apply(driver);
+        }
+        return driver;
+    }
 
-        // Initialize ChromeDriver
-        driver = new ChromeDriver(options);
-        LOGGER.info("WebDriver initialized.");
+    /**
+     * This method initializes an instance of the Firefox WebDriver in headless mode.
+     * <p>
+     *     The implicit wait and the page load strategy are configured like for Chrome. Every session starts its own
+     *     geckodriver process, because geckodriver serves only one session at a time, and the {@link NetworkProfile}
+     *     is not installed, because it relies on the Chrome DevTools Protocol.
+     * </p>
+     *
+     * @return A new FirefoxDriver instance.
+     */
+    private static WebDriver createFirefoxDriver() {
+        FirefoxOptions options = new FirefoxOptions();
+        options.addArguments("-headless");
+        if (Constants.implicitWaitMillis > 0) {
+            options.setImplicitWaitTimeout(Duration.ofMillis(Constants.implicitWaitMillis));
+        }
+        options.setPageLoadStrategy(PageLoadStrategy.fromString(Constants.pageLoadStrategy));
+        if (NetworkProfile.isEnabled()) {
+            LOGGER.warning("Network profile is not supported by Firefox, no requests are blocked.");
+        }
+        return new FirefoxDriver(options);
     }
 
     /**
-     * This method tears down the instance of a Chrome web driver
-     * It has @AfterAll JUnit annotation which means that it will be executed after all the tests within the test class have finished
-     * In JUnit, methods annotated with @AfterAll are used for cleanup tasks that should be executed once after all test methods in
-     * a test class have run. Since these methods are called on the class itself and not on an instance of the class,
-     * they must be declared as static.
+     * This method returns the chromedriver process shared by all sessions, starting it on first use.
+     *
+     * @return The running ChromeDriverService.
      */
-    @AfterAll
-    public static void tearDown() {
-        if (driver != null) {
-            driver.quit();
-            LOGGER.info("WebDriver quit.");
+    private static synchronized ChromeDriverService driverService() {
+        if (driverService == null) {
+            ChromeDriverService service = ChromeDriverService.createDefaultService();
+            try {
+                service.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to start chromedriver.", e);
+            }
+            driverService = service;
+            LOGGER.info(() -> "ChromeDriverService started at " + service.getUrl());
         }
+        return driverService;
+    }
+
+    /**
+     * This method stops the shared chromedriver process if it has been started.
+     * It is called by the {@link WebDriverPool} after all sessions have been quit.
+     */
+    static synchronized void stopDriverService() {
+        if (driverService != null) {
+            driverService.stop();
+            driverService = null;
+            LOGGER.info("ChromeDriverService stopped.");
+        }
+    }
+
+    /**
+     * This method returns the browser session leased by the thread that executes the current test.
+     *
+     * @return The WebDriver instance of the current test.
+     */
+    protected static WebDriver getDriver() {
+        return WebDriverPool.current();
     }
 
     /**
      * This method opens the specified URL in the browser.
      * <p>
-     * This method navigates the WebDriver instance to the provided URL.
+     * This method navigates the WebDriver instance to the provided URL
+     * and captures the timing of the navigation with {@link PerformanceCapture}.
      * </p>
      * <p>
      * Example usage:
@@ -90,7 +210,23 @@ public abstract class WebDriverHandler {
      * @param url The URL to be opened in the browser.
      */
     public void open(String url){
-        driver.get(url);
+        WebDriver driver = getDriver();
+        FlightEvents.navigatedTo(url);
+        FlightEvents.Navigation event = new FlightEvents.Navigation();
+        event.begin();
+        long start = ActionTimings.start();
+        try {
+            driver.get(url);
+        } finally {
+            ActionTimings.record(ActionTimings.Action.OPEN, url, start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.url = url;
+                event.commit();
+            }
+        }
+        ElementCache.navigated(driver);
+        PerformanceCapture.capture(driver, "open " + url);
     }
 }
 
@@ -0,0 +1,342 @@
+package Utils;
+
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.util.Deque;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * The WebDriverPool class is a bounded pool of browser sessions shared by all test classes of a run.
+ * <p>
+ * Every test thread leases its own WebDriver from the pool, so test classes can be executed in parallel
+ * without sharing a browser. The number of sessions that may be alive at the same time is limited by
+ * {@link Constants#poolSize}; a thread asking for a session while the pool is exhausted waits until
+ * another test class hands its session back.
+ * </p>
+ * <p>
+ * Every {@link Browser} has its own pool, so the runs of a test class against different browsers do not compete
+ * for the same sessions. Each pool is limited to {@link Constants#poolSize} sessions.
+ * </p>
+ * <p>
+ * The leased session is bound to the current thread, which lets {@link WebDriverHandler} and the
+ * page objects resolve it without a global driver field.
+ * </p>
+ * <p>
+ * With {@link #prewarm(int)} the pool launches sessions in the background before the first test class asks
+ * for one. {@link #acquire()} hands out those warm sessions first and only launches a browser on the calling
+ * thread when none is left. The time every session took to become ready is logged.
+ * </p>
+ * <p>
+ * When {@link Constants#recycleSessions} is enabled, a released session is reset by the {@link SessionRecycler}
+ * and kept for the next lease instead of being quit. Sessions that fail the reset are quit and relaunched on demand.
+ * </p>
+ *
+ * Example usage:
+ * <pre>{@code
+ * WebDriver driver = WebDriverPool.getInstance(Browser.FIREFOX).acquire();
+ * WebDriverPool.bind(driver);
+ * ...
+ * WebDriverPool.unbind();
+ * WebDriverPool.getInstance(Browser.FIREFOX).release(driver);
+ * }</pre>
+ * A session must be handed back to the pool it was leased from.
+ */
+public final class WebDriverPool {
+
+    private static final Logger LOGGER = LoggerUtil.getLogger();
+
+    private static final Map<Browser, WebDriverPool> POOLS = new ConcurrentHashMap<>();
+
+    /**
+     * The session leased by the current thread.
+     */
+    private static final ThreadLocal<WebDriver> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final int size;
+    private final Semaphore permits;
+    private final Supplier<WebDriver> factory;
+    private final Set<WebDriver> sessions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Sessions which are leased from this pool and not handed back yet, each holding one permit.
+     */
+    private final Set<WebDriver> leased = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Recycled sessions which are ready to be leased again.
+     */
+    private final Deque<WebDriver> idleSessions = new ConcurrentLinkedDeque<>();
+
+    /**
+     * Sessions launched in the background which have not been leased yet.
+     */
+    private final Deque<Future<WebDriver>> warmSessions = new ConcurrentLinkedDeque<>();
+
+    /**
+     * Statistics of the time in milliseconds it took sessions to become ready.
+     */
+    private final LongSummaryStatistics readyTimes = new LongSummaryStatistics();
+
+    private ExecutorService launcher;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(WebDriverPool::shutdownAll, "webdriver-pool-shutdown"));
+    }
+
+    /**
+     * Constructs a new pool which creates at most {@code size} sessions with the given factory.
+     *
+     * @param name    The name of the pool used in log messages, e.g. the name of the browser.
+     * @param size    The maximum number of sessions alive at the same time.
+     * @param factory The factory used to launch a new browser session.
+     */
+    WebDriverPool(String name, int size, Supplier<WebDriver> factory) {
+        this.name = name;
+        this.size = Math.max(1, size);
+        this.permits = new Semaphore(this.size, true);
+        this.factory = factory;
+    }
+
+    /**
+     * Method which returns the pool of the first configured browser.
+     *
+     * @return The shared WebDriverPool instance of the default browser.
+     */
+    public static WebDriverPool getInstance() {
+        return getInstance(Browser.configured().get(0));
+    }
+
+    /**
+     * Method which returns the pool of a browser shared by all tests of the current JVM, creating it on first use.
+     *
+     * @param browser The browser of the sessions.
+     * @return The shared WebDriverPool instance of the browser.
+     */
+    public static WebDriverPool getInstance(Browser browser) {
+        return POOLS.computeIfAbsent(browser,
+                key -> new WebDriverPool(key.getName(), Constants.poolSize, () -> WebDriverHandler.createDriver(key)));
+    }
+
+    /**
+     * Launches browser sessions in the background so that they are already running when tests lease them.
+     * <p>
+     * The number of warm sessions is limited by the size of the pool. The method has no effect if the pool
+     * has already been warmed up.
+     * </p>
+     *
+     * @param count The number of sessions to launch.
+     */
+    public synchronized void prewarm(int count) {
+        int warm = Math.min(count, size);
+        if (warm <= 0 || launcher != null) {
+            return;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        launcher = Executors.newFixedThreadPool(warm, runnable -> {
+            Thread thread = new Thread(runnable, "webdriver-warmup-" + name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < warm; i++) {
+            warmSessions.add(launcher.submit(this::launch));
+        }
+        LOGGER.info(() -> "Launching " + warm + " " + name + " WebDriver sessions in the background.");
+    }
+
+    /**
+     * Leases a browser session from the pool.
+     * <p>
+     * This method blocks while all sessions are leased by other threads. A recycled session or a session
+     * launched by {@link #prewarm(int)} is preferred over launching a new one.
+     * </p>
+     *
+     * @return A WebDriver owned by the caller until it is handed back with {@link #release(WebDriver)}.
+     * @throws InterruptedException If the thread is interrupted while waiting for a free session.
+     */
+    public WebDriver acquire() throws InterruptedException {
+        permits.acquire();
+        try {
+            WebDriver driver = idleSessions.poll();
+            Future<WebDriver> warm = driver == null ? warmSessions.poll() : null;
+            if (warm != null) {
+                try {
+                    driver = warm.get();
+                } catch (ExecutionException e) {
+                    LOGGER.warning(() -> "Warm-up of WebDriver session failed: " + e.getCause());
+                }
+            }
+            if (driver == null) {
+                driver = launch();
+            }
+            leased.add(driver);
+            return driver;
+        } catch (InterruptedException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Launches a new browser session and records how long it took to become ready.
+     *
+     * @return The new WebDriver instance.
+     */
+    private WebDriver launch() {
+        FlightEvents.DriverSession event = new FlightEvents.DriverSession();
+        event.begin();
+        long start = System.nanoTime();
+        WebDriver driver = factory.get();
+        sessions.add(driver);
+        commit(event, "start", driver);
+        long readyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        synchronized (readyTimes) {
+            readyTimes.accept(readyMillis);
+        }
+        LOGGER.info(() -> "WebDriver " + name + " initialized in " + readyMillis + " ms on thread " + Thread.currentThread().getName() + ".");
+        return driver;
+    }
+
+    /**
+     * Ends and commits a session event if Flight Recorder is recording it.
+     */
+    private static void commit(FlightEvents.DriverSession event, String operation, WebDriver driver) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            if (driver instanceof HasCapabilities) {
+                event.browser = ((HasCapabilities) driver).getCapabilities().getBrowserName();
+            }
+            if (driver instanceof RemoteWebDriver) {
+                event.sessionId = String.valueOf(((RemoteWebDriver) driver).getSessionId());
+            }
+            event.commit();
+        }
+    }
+
+    /**
+     * Hands a leased session back to the pool. The browser is quit, unless it can be recycled.
+     *
+     * @param driver The WebDriver previously returned by {@link #acquire()} of this pool.
+     * @throws IllegalArgumentException If the driver is not leased from this pool. Its permit and its browser
+     *                                  are left alone, so they can still be released to the right pool.
+     */
+    public void release(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        if (!leased.remove(driver)) {
+            throw new IllegalArgumentException("WebDriver is not leased from the " + name + " pool.");
+        }
+        try {
+            if (Constants.recycleSessions && sessions.contains(driver) && SessionRecycler.reset(driver)) {
+                idleSessions.push(driver);
+            } else if (sessions.remove(driver)) {
+                FlightEvents.DriverSession event = new FlightEvents.DriverSession();
+                event.begin();
+                driver.quit();
+                commit(event, "quit", driver);
+                LOGGER.info("WebDriver quit.");
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Shuts the pools of all browsers down and stops the shared driver service.
+     * It is called when the test run ends or the JVM shuts down.
+     */
+    public static void shutdownAll() {
+        for (WebDriverPool pool : POOLS.values()) {
+            pool.shutdown();
+        }
+        WebDriverHandler.stopDriverService();
+        if (Constants.recycleSessions) {
+            LOGGER.info(() -> "WebDriver session recycling: " + SessionRecycler.summary() + ".");
+        }
+    }
+
+    /**
+     * Quits every session of the pool which is still alive, including warm sessions that were never leased.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            if (launcher != null) {
+                launcher.shutdownNow();
+            }
+        }
+        warmSessions.clear();
+        idleSessions.clear();
+        for (WebDriver driver : sessions) {
+            try {
+                driver.quit();
+            } catch (RuntimeException e) {
+                LOGGER.warning(() -> "Unable to quit WebDriver: " + e.getMessage());
+            }
+        }
+        sessions.clear();
+        synchronized (readyTimes) {
+            if (readyTimes.getCount() > 0) {
+                LOGGER.info(() -> "WebDriver " + name + " sessions launched: " + readyTimes.getCount() + ", ready time avg "
+                        + Math.round(readyTimes.getAverage()) + " ms, max " + readyTimes.getMax() + " ms.");
+            }
+        }
+    }
+
+    /**
+     * Binds a leased session to the current thread.
+     *
+     * @param driver The WebDriver leased by the current thread.
+     */
+    public static void bind(WebDriver driver) {
+        CURRENT.set(driver);
+    }
+
+    /**
+     * Removes the session binding of the current thread.
+     */
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Method which returns the session leased by the current thread.
+     *
+     * @return The WebDriver bound to the current thread.
+     * @throws IllegalStateException If no session is bound to the current thread.
+     */
+    public static WebDriver current() {
+        WebDriver driver = CURRENT.get();
+        if (driver == null) {
+            throw new IllegalStateException("No WebDriver session is leased by thread " + Thread.currentThread().getName());
+        }
+        return driver;
+    }
+
+    /**
+     * Method which returns the session leased by the current thread, if there is one.
+     * It is used by callers which also run for tests without a browser session.
+     *
+     * @return The WebDriver bound to the current thread, or empty if no session is bound.
+     */
+    public static Optional<WebDriver> findCurrent() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+}
@@ -0,0 +1,176 @@
+import Utils.StubWebDriver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.WebElement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The HtmlDocumentTest class checks how pages are parsed, queried and rendered without a browser.
+ * <p>
+ * The pages are scripted with the {@link StubWebDriver}, so every test sees exactly the markup it describes:
+ * character references and raw text, unclosed and misnested tags, the supported CSS selectors and the rendered
+ * text of {@link WebElement#getText()}.
+ * </p>
+ */
+public class HtmlDocumentTest {
+
+    private StubWebDriver driver;
+
+    @BeforeEach
+    public void openSession() {
+        driver = new StubWebDriver();
+    }
+
+    @AfterEach
+    public void closeSession() {
+        driver.quit();
+    }
+
+    /**
+     * Opens a scripted page with the given body.
+     */
+    private void open(String body) {
+        driver.page("/page", "<!DOCTYPE html><html><head><title>Test &amp; Page</title></head><body>" + body + "</body></html>");
+        driver.get(driver.url("/page"));
+    }
+
+    private int count(String css) {
+        return driver.findElements(By.cssSelector(css)).size();
+    }
+
+    /**
+     * Named, decimal and hexadecimal character references are decoded in text and attribute values,
+     * unknown references and a bare ampersand are kept as they are.
+     */
+    @Test
+    @DisplayName("Character references")
+    public void entities() {
+        open("<p id=\"text\">Fish &amp; Chips &lt;3 &#215; &#x41; &unknown; a & b</p>"
+                + "<input id=\"field\" value=\"say &quot;hi&quot; &apos;now&apos;\">");
+
+        assertEquals("Fish & Chips <3 \u00d7 A &unknown; a & b", driver.findElement(By.id("text")).getText());
+        assertEquals("say \"hi\" 'now'", driver.findElement(By.id("field")).getAttribute("value"));
+        assertEquals("Test & Page", driver.getTitle());
+    }
+
+    /**
+     * The content of script, style and textarea elements is text, markup inside them does not create elements.
+     * Only the content of a textarea has its character references decoded.
+     */
+    @Test
+    @DisplayName("Raw text elements")
+    public void rawText() {
+        open("<script>var html = \"<div id='fake'>&amp;</div>\";</script>"
+                + "<style>#real > p { color: red; }</style>"
+                + "<textarea id=\"area\"><b>bold</b> &amp; more</textarea>"
+                + "<div id=\"real\">after</div>");
+
+        assertTrue(driver.findElements(By.id("fake")).isEmpty(), "Markup in a script is not parsed.");
+        assertEquals("var html = \"<div id='fake'>&amp;</div>\";",
+                driver.findElement(By.tagName("script")).getAttribute("textContent"), "Script content is kept as is.");
+        assertEquals("<b>bold</b> & more", driver.findElement(By.id("area")).getAttribute("value"));
+        assertEquals("after", driver.findElement(By.id("real")).getText(), "Parsing continues after the raw text.");
+    }
+
+    /**
+     * Elements without an end tag are closed by the next sibling of the same type or by the end tag of their parent,
+     * and an end tag closes the elements opened inside its element. End tags without an open element are ignored.
+     */
+    @Test
+    @DisplayName("Unclosed and misnested tags")
+    public void unclosedAndMisnestedTags() {
+        open("<ul id=\"list\"><li>One<li>Two<li>Three</ul>"
+                + "<p id=\"first\">a<p id=\"second\">b"
+                + "<div id=\"outer\"><span id=\"inner\"><em>x</div><div id=\"next\">y</em></div>"
+                + "</section><div id=\"last\">z");
+
+        assertEquals(3, count("#list > li"), "List items are closed by the next item.");
+        assertEquals(0, count("#first #second"), "A paragraph is closed by the next paragraph.");
+        assertEquals(1, count("#outer #inner em"));
+        assertEquals(0, count("#outer #next"), "The end tag of the outer div closes the span and em inside it.");
+        assertEquals(0, count("#inner #next"));
+        assertEquals("y", driver.findElement(By.id("next")).getText());
+        assertEquals("z", driver.findElement(By.id("last")).getText(), "A stray end tag is ignored.");
+    }
+
+    /**
+     * The child combinator only matches direct children, the descendant combinator matches at any depth.
+     */
+    @Test
+    @DisplayName("Child and descendant combinators")
+    public void combinators() {
+        open("<div id=\"root\"><span class=\"item\">1</span><section><span class=\"item\">2</span>"
+                + "<div><span class=\"item\">3</span></div></section></div>");
+
+        assertEquals(1, count("#root > .item"));
+        assertEquals(3, count("#root .item"));
+        assertEquals(2, count("#root section .item"));
+        assertEquals(1, count("#root>section>.item"), "Combinators without whitespace.");
+        assertEquals(1, count("div > section > div > span"));
+        assertEquals(2, count("#root > .item, section > div > .item"), "Selector lists.");
+    }
+
+    /**
+     * The attribute operators with quoted and unquoted values.
+     */
+    @Test
+    @DisplayName("Attribute selectors")
+    public void attributeOperators() {
+        open("<a id=\"link\" href=\"https://example.com/docs/page\" rel=\"external nofollow\" data-note='say \"hi\"'>docs</a>"
+                + "<input id=\"empty\" name=\"\">");
+
+        assertEquals(1, count("a[href]"));
+        assertEquals(1, count("[id=link]"));
+        assertEquals(1, count("[href^='https://']"));
+        assertEquals(1, count("[href$=\"/page\"]"));
+        assertEquals(1, count("[href*=example]"));
+        assertEquals(1, count("[rel~=nofollow]"));
+        assertEquals(0, count("[rel~=follow]"), "~= matches whole words only.");
+        assertEquals(1, count("[data-note='say \"hi\"']"));
+        assertEquals(0, count("[name^='']"), "An empty value never matches ^=, $= and *=.");
+        assertEquals(1, count("input[name='']"));
+        assertEquals(1, count("[ID=link]"), "Attribute names are case-insensitive.");
+    }
+
+    /**
+     * Selectors which need a browser are rejected instead of matching nothing.
+     */
+    @Test
+    @DisplayName("Unsupported selectors")
+    public void invalidSelectors() {
+        open("<p>text</p>");
+
+        for (String css : new String[]{"p + p", "p ~ p", "p:first-child", "p::before", "[=x]", "p,", "> p", "[href"}) {
+            assertThrows(InvalidSelectorException.class, () -> driver.findElements(By.cssSelector(css)), css);
+        }
+        assertThrows(InvalidSelectorException.class, () -> driver.findElements(By.xpath("//p")));
+    }
+
+    /**
+     * The rendered text collapses whitespace, starts block elements and line breaks on a new line and leaves out
+     * hidden elements.
+     */
+    @Test
+    @DisplayName("Rendered text")
+    public void renderedText() {
+        open("<div id=\"content\">\n  Hello   <b>world</b>\n<div>second</div>"
+                + "<span style=\"display: none\">hidden</span><span hidden>hidden</span><input type=\"hidden\" value=\"v\">"
+                + "third<br>fourth<script>ignored()</script><p>  fifth  </p></div>"
+                + "<p id=\"invisible\" style=\"DISPLAY:NONE\">secret <b>text</b></p>");
+
+        assertEquals("Hello world\nsecond\nthird\nfourth\nfifth", driver.findElement(By.id("content")).getText());
+        WebElement invisible = driver.findElement(By.id("invisible"));
+        assertFalse(invisible.isDisplayed());
+        assertEquals("", invisible.getText(), "Hidden elements have no text.");
+        assertFalse(invisible.findElement(By.tagName("b")).isDisplayed(), "Children of hidden elements are hidden.");
+        assertEquals("secret text", invisible.getAttribute("textContent"), "The text content includes hidden text.");
+    }
+}
@@ -0,0 +1,213 @@
+import Utils.HttpSessionDriver;
+import Utils.Locator;
+import Utils.StandInServer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The HttpSessionDriverTest class runs the login flow of the page objects without a browser.
+ * <p>
+ * The pages are served by the {@link StandInServer} and loaded by the {@link HttpSessionDriver}, so this class
+ * checks that the page objects behave the same on the protocol level as in a browser and needs no browser to run.
+ * </p>
+ * <p>
+ * Redirects, cookie paths and timeouts are checked against a small server of the class, which answers with
+ * the statuses and headers the stand-in application does not use.
+ * </p>
+ */
+public class HttpSessionDriverTest {
+
+    private static HttpServer server;
+    private static ExecutorService executor;
+
+    private HttpSessionDriver driver;
+
+    @BeforeAll
+    public static void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "protocol-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/form", exchange -> send(exchange, 200, "<form method=\"post\" action=\"/redirect?"
+                + exchange.getRequestURI().getRawQuery() + "\"><input name=\"q\" value=\"a b\"><button type=\"submit\">Go</button></form>"));
+        server.createContext("/redirect", exchange -> {
+            exchange.getResponseHeaders().set("Location", "/echo");
+            exchange.sendResponseHeaders(Integer.parseInt(exchange.getRequestURI().getQuery().substring("status=".length())), -1);
+            exchange.close();
+        });
+        server.createContext("/echo", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            send(exchange, 200, "<p id=\"method\">" + exchange.getRequestMethod() + "</p><p id=\"body\">" + body + "</p>");
+        });
+        server.createContext("/app/set", exchange -> {
+            exchange.getResponseHeaders().add("Set-Cookie", "scoped=yes; Path=/app");
+            exchange.getResponseHeaders().add("Set-Cookie", "global=yes; Path=/");
+            send(exchange, 200, "<p>set</p>");
+        });
+        server.createContext("/", exchange -> send(exchange, 200, "<p id=\"cookies\">"
+                + String.join("; ", exchange.getRequestHeaders().getOrDefault("Cookie", Collections.emptyList())) + "</p>"));
+        server.createContext("/slow", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("<p>first part".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                TimeUnit.SECONDS.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                // the driver gave up
+            }
+        });
+        server.start();
+    }
+
+    @AfterAll
+    public static void stopServer() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static void send(HttpExchange exchange, int status, String html) throws IOException {
+        byte[] body = html.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html;charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String url(String path) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + path;
+    }
+
+    private String text(String id) {
+        return driver.findElement(By.id(id)).getText();
+    }
+
+    @BeforeEach
+    public void openSession() {
+        driver = new HttpSessionDriver();
+        driver.get(StandInServer.start().url("/login"));
+    }
+
+    @AfterEach
+    public void closeSession() {
+        driver.quit();
+    }
+
+    /**
+     * Logs in with valid credentials, which redirects to the secure area with the session cookie,
+     * and logs out again with the link of the secure area, which replaces the session.
+     */
+    @Test
+    @DisplayName("Valid Login without a browser")
+    public void validLogin() {
+        SecurePage securePage = new LoginPage(driver).submitCredentials("tomsmith", "SuperSecretPassword!");
+
+        securePage.verifyUserLoggedIn();
+        securePage.verifyNoErrorMessage();
+        securePage.verifySecureAreaDisplayed();
+        assertTrue(driver.getCurrentUrl().endsWith("/secure"), "Redirected to the secure area.");
+        assertEquals(1, driver.manage().getCookies().size(), "Session cookie is kept.");
+        String session = driver.manage().getCookieNamed("rack.session").getValue();
+
+        securePage.click(Locator.logoutButton);
+        assertTrue(driver.getCurrentUrl().endsWith("/login"), "Redirected to the login page.");
+        assertTrue(driver.getPageSource().contains("You logged out of the secure area!"), "Logout message is displayed.");
+        assertNotEquals(session, driver.manage().getCookieNamed("rack.session").getValue(), "Session is replaced on logout.");
+    }
+
+    /**
+     * Logs in with invalid credentials, which shows the error message on the login page.
+     */
+    @Test
+    @DisplayName("Invalid Login without a browser")
+    public void invalidLogin() {
+        LoginPage loginPage = new LoginPage(driver);
+        loginPage.submitCredentials("invalidUser", "invalidPassword");
+
+        loginPage.verifyLoginFailed();
+        assertTrue(driver.getCurrentUrl().endsWith("/login"), "Stays on the login page.");
+    }
+
+    /**
+     * A {@code 303 See Other} after a form submission is followed with a GET without the form data,
+     * like a {@code 302}, and a {@code 307 Temporary Redirect} repeats the POST with its form data.
+     */
+    @Test
+    @DisplayName("Redirects after a form submission")
+    public void redirects() {
+        for (String status : new String[]{"302", "303"}) {
+            driver.get(url("/form?status=" + status));
+            driver.findElement(By.tagName("button")).click();
+            assertTrue(driver.getCurrentUrl().endsWith("/echo"), status + " is followed.");
+            assertEquals("GET", text("method"), status + " changes the method to GET.");
+            assertEquals("", text("body"), status + " drops the form data.");
+        }
+
+        driver.get(url("/form?status=307"));
+        driver.findElement(By.tagName("button")).click();
+        assertTrue(driver.getCurrentUrl().endsWith("/echo"), "307 is followed.");
+        assertEquals("POST", text("method"), "307 keeps the method.");
+        assertEquals("q=a+b", text("body"), "307 sends the form data again.");
+    }
+
+    /**
+     * A cookie is only sent to the paths below the path it was set for.
+     */
+    @Test
+    @DisplayName("Cookie paths")
+    public void cookiePaths() {
+        driver.get(url("/app/set"));
+
+        driver.get(url("/app/page"));
+        assertTrue(text("cookies").contains("scoped=yes"), "Cookie is sent below its path.");
+        assertTrue(text("cookies").contains("global=yes"));
+
+        driver.get(url("/other/page"));
+        assertFalse(text("cookies").contains("scoped=yes"), "Cookie is not sent outside its path.");
+        assertTrue(text("cookies").contains("global=yes"));
+
+        driver.get(url("/application"));
+        assertFalse(text("cookies").contains("scoped=yes"), "A path only matches whole segments.");
+    }
+
+    /**
+     * A body which stops arriving is reported as a timeout of the page load, not as a failed request.
+     */
+    @Test
+    @DisplayName("Timeout while reading a page")
+    public void bodyReadTimeout() {
+        driver.manage().timeouts().pageLoadTimeout(Duration.ofMillis(300));
+
+        assertThrows(TimeoutException.class, () -> driver.get(url("/slow")));
+    }
+}
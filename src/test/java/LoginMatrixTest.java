@@ -0,0 +1,64 @@
+import Utils.BrowserTest;
+import Utils.Constants;
+import Utils.DataFile;
+import Utils.TestResultLogger;
+import Utils.WebDriverHandler;
+import io.qameta.allure.Owner;
+import io.qameta.allure.Severity;
+import jdk.jfr.Description;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.junit.jupiter.params.ParameterizedTest;
+
+import static io.qameta.allure.SeverityLevel.NORMAL;
+
+/**
+ * The LoginMatrixTest class checks the login functionality with the credentials of a data file.
+ * <p>
+ * Every row of {@code login-cases.csv} is one invocation of {@link #login(String, String, String)}, which makes the
+ * same assertions as the valid and invalid login of {@link LoginTest}. The rows are streamed from the file and split
+ * across the shards of the run and the {@link Constants#dataPartitions} partitions of every browser, each partition
+ * running with its own session. A larger file is used with {@code -Ddata.dir}.
+ * </p>
+ */
+@BrowserTest(partitioned = true)
+@Severity(NORMAL)
+@Owner("Isidora Djokic")
+@ExtendWith(TestResultLogger.class)
+public class LoginMatrixTest extends WebDriverHandler {
+
+    /**
+     * Data-driven test that logs in with the credentials of one row.
+     * <p>
+     * The cookies of the previous row are deleted first, so every row starts logged out. A row expecting
+     * {@code success} must reach the secure area without an error message, any other row must show the error message.
+     * </p>
+     *
+     * @param username The username to be entered.
+     * @param password The password to be entered.
+     * @param expected The expected outcome, {@code success} or {@code failure}.
+     */
+    @ParameterizedTest(name = "[{index}] {argumentSetName}: {0} -> {2}")
+    @Execution(ExecutionMode.SAME_THREAD)
+    @DataFile("login-cases.csv")
+    @Tag("data")
+    @DisplayName("Login Matrix")
+    @Description("This test logs in with the credentials of every row of the data file. Fails if the outcome differs from the expected one.")
+    public void login(String username, String password, String expected) {
+        open(Constants.baseURL);
+        getDriver().manage().deleteAllCookies();
+        LoginPage loginPage = new LoginPage(getDriver());
+
+        SecurePage securePage = loginPage.submitCredentials(username, password);
+
+        if ("success".equals(expected)) {
+            securePage.verifyUserLoggedIn();
+            securePage.verifyNoErrorMessage();
+        } else {
+            loginPage.verifyLoginFailed();
+        }
+    }
+}
@@ -1,12 +1,19 @@
+import Utils.AuthSessionCache;
+import Utils.BrowserTest;
 import Utils.Constants;
+import Utils.LongestFirstOrderer;
+import Utils.PerformanceBudget;
 import Utils.TestResultLogger;
 import Utils.WebDriverHandler;
 import io.qameta.allure.*;
 import jdk.jfr.Description;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
 
 import static io.qameta.allure.SeverityLevel.CRITICAL;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * The LoginTest class contains test cases for the login functionality of the application.
@@ -15,9 +22,10 @@ import static io.qameta.allure.SeverityLevel.CRITICAL;
  * It uses Selenium WebDriver for browser automation to simulate user interactions.
  * </p>
  */
+@BrowserTest
 @Severity(CRITICAL)
 @Owner("Isidora Djokic")
-@TestMethodOrder(MethodOrderer.MethodName.class)
+@TestMethodOrder(LongestFirstOrderer.class)
 @ExtendWith(TestResultLogger.class)
 public class LoginTest extends WebDriverHandler {
     /**
@@ -26,6 +34,7 @@ public class LoginTest extends WebDriverHandler {
      * This method initializes the LoginPage, navigates to the login page,
      * enters valid username and password, clicks the login button
      * and asserts if the login is successful or not.
+     * The login round trip must stay within the budget of {@link Constants#loginBudgetMillis}.
      * </p>
      * <p>
      * Preconditions:
@@ -39,19 +48,22 @@ public class LoginTest extends WebDriverHandler {
      * @see LoginPage
      */
     @Test
+    @Execution(ExecutionMode.SAME_THREAD)
     @Order(1)
     @Tag("smoke")
     @DisplayName("Valid Login")
     @Description("This test attempts to log into the website using a valid username and a valid password. Fails if any error happens and success message does not appear.")
     public void t001_validLogin() {
         open(Constants.baseURL);
-        LoginPage loginPage = new LoginPage(driver);
+        LoginPage loginPage = new LoginPage(getDriver());
 
         loginPage.enterUsername("tomsmith");
         loginPage.enterPassword("SuperSecretPassword!");
         SecurePage securePage=loginPage.clickLoginButton();
 
         securePage.verifyUserLoggedIn();
+        securePage.verifyNoErrorMessage();
+        PerformanceBudget.assertPercentileBelow(LoginPage.LOGIN_NAVIGATION, 95, Constants.loginBudgetMillis);
     }
 
     /**
@@ -73,13 +85,14 @@ public class LoginTest extends WebDriverHandler {
      * @see LoginPage
      */
     @Test
+    @Execution(ExecutionMode.SAME_THREAD)
     @Order(2)
     @Tag("negative")
     @DisplayName("Invalid Login")
     @Description("This test attempts to log into the website using an invalid username and an invalid password. Fails error massage does not appear.")
     public void t002_invalidLogin() {
         open(Constants.baseURL);
-        LoginPage loginPage = new LoginPage(driver);
+        LoginPage loginPage = new LoginPage(getDriver());
 
         loginPage.enterUsername("invalid_username");
         loginPage.enterPassword("invalid_password");
@@ -87,4 +100,37 @@ public class LoginTest extends WebDriverHandler {
 
         loginPage.verifyLoginFailed();
     }
+
+    /**
+     * Test that opens the secure area with the session of an earlier valid login.
+     * <p>
+     * This method starts without cookies and without a cached session of the browser, so
+     * {@link LoginPage#loginAs(String, String)} submits the login form and caches the session of the login.
+     * It then deletes the cookies again and asserts that {@link AuthSessionCache#restore} opens the secure area with the cached session,
+     * without the login form.
+     * </p>
+     * <p>
+     * Tags:
+     * - @smoke: Indicates that this test is part of the smoke test suite.
+     * </p>
+     * @see LoginPage
+     */
+    @Test
+    @Execution(ExecutionMode.SAME_THREAD)
+    @Order(3)
+    @Tag("smoke")
+    @DisplayName("Cached Session Login")
+    @Description("This test opens the secure area with the cached session of a valid user. Fails if the secure area is not displayed.")
+    public void t003_cachedSessionLogin() {
+        open(Constants.baseURL);
+        getDriver().manage().deleteAllCookies();
+        AuthSessionCache.invalidate(getDriver(), "tomsmith", "SuperSecretPassword!");
+        new LoginPage(getDriver()).loginAs("tomsmith", "SuperSecretPassword!").verifyUserLoggedIn();
+
+        getDriver().manage().deleteAllCookies();
+        open(Constants.baseURL);
+        assertTrue(AuthSessionCache.restore(getDriver(), "tomsmith", "SuperSecretPassword!"), "Cached session is restored.");
+
+        new SecurePage(getDriver()).verifySecureAreaDisplayed();
+    }
 }
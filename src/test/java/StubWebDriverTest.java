@@ -0,0 +1,60 @@
+import Utils.Locator;
+import Utils.StubWebDriver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The StubWebDriverTest class runs the login flow of the page objects against the scripted pages of the
+ * {@link StubWebDriver}, which the benchmarks of {@code src/jmh/java} rely on.
+ */
+public class StubWebDriverTest {
+
+    private StubWebDriver driver;
+
+    @BeforeEach
+    public void openSession() {
+        driver = StubWebDriver.loginApp();
+        driver.get(driver.url("/login"));
+    }
+
+    @AfterEach
+    public void closeSession() {
+        driver.quit();
+    }
+
+    /**
+     * Logs in and out with valid credentials, following the scripted redirects.
+     */
+    @Test
+    @DisplayName("Valid Login against scripted pages")
+    public void validLogin() {
+        SecurePage securePage = new LoginPage(driver).submitCredentials("tomsmith", "SuperSecretPassword!");
+
+        securePage.verifyUserLoggedIn();
+        securePage.verifySecureAreaDisplayed();
+        assertEquals(driver.url("/secure"), driver.getCurrentUrl(), "Redirected to the secure area.");
+
+        securePage.click(Locator.logoutButton);
+        assertEquals(driver.url("/login"), driver.getCurrentUrl(), "Redirected to the login page.");
+        assertEquals(5, driver.getRequestCount(), "Every page and redirect is one request.");
+    }
+
+    /**
+     * Logs in with an invalid password and opens the secure area without a login.
+     */
+    @Test
+    @DisplayName("Invalid Login against scripted pages")
+    public void invalidLogin() {
+        LoginPage loginPage = new LoginPage(driver);
+        loginPage.submitCredentials("tomsmith", "invalidPassword");
+        loginPage.verifyLoginFailed();
+
+        driver.get(driver.url("/secure"));
+        assertTrue(loginPage.getErrorMessage().contains("You must login to view the secure area!"), "Secure area needs a login.");
+    }
+}
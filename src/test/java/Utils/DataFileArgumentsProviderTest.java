@@ -0,0 +1,170 @@
+package Utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.provider.Arguments;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The DataFileArgumentsProviderTest class checks how the rows of a {@link DataFile} are read and split.
+ * <p>
+ * The data files are written to a temporary directory, and the rows are read with the slice and failure limit
+ * of the test instead of the ones of the run, so shards and partitions can be checked in a single JVM.
+ * </p>
+ */
+public class DataFileArgumentsProviderTest {
+
+    private static final int[] ALL_ROWS = {0, 1};
+
+    @TempDir
+    Path directory;
+
+    private Path write(String name, String content) throws IOException {
+        return Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<Arguments.ArgumentSet> read(Path file, String[] columns, int[] slice, int limit, AtomicInteger failures) throws IOException {
+        try (Stream<Arguments> rows = DataFileArgumentsProvider.rows(file.toString(), columns,
+                DataFileArgumentsProviderTest.class, slice, limit, failures, "test")) {
+            List<Arguments.ArgumentSet> read = new ArrayList<>();
+            rows.forEach(row -> read.add((Arguments.ArgumentSet) row));
+            return read;
+        }
+    }
+
+    private static List<Arguments.ArgumentSet> read(Path file, String... columns) throws IOException {
+        return read(file, columns, ALL_ROWS, 0, new AtomicInteger());
+    }
+
+    private static List<String> names(List<Arguments.ArgumentSet> rows) {
+        return rows.stream().map(Arguments.ArgumentSet::getName).collect(Collectors.toList());
+    }
+
+    /**
+     * Every row is read by exactly one data partition of one shard, and the partitions of a shard take
+     * consecutive slices.
+     */
+    @Test
+    @DisplayName("Slices across shards and partitions")
+    public void slices() throws IOException {
+        StringBuilder csv = new StringBuilder("id\n");
+        for (int i = 0; i < 10; i++) {
+            csv.append(i).append('\n');
+        }
+        Path file = write("rows.csv", csv.toString());
+
+        assertArrayEquals(new int[]{0, 1}, DataFileArgumentsProvider.slice(0, 1, 0, 1));
+        assertArrayEquals(new int[]{3, 4}, DataFileArgumentsProvider.slice(1, 2, 1, 2));
+        assertArrayEquals(new int[]{4, 6}, DataFileArgumentsProvider.slice(1, 2, 1, 3));
+
+        Set<String> seen = new HashSet<>();
+        int total = 0;
+        for (int shard = 0; shard < 2; shard++) {
+            for (int partition = 0; partition < 2; partition++) {
+                List<Arguments.ArgumentSet> rows = read(file, new String[0],
+                        DataFileArgumentsProvider.slice(shard, 2, partition, 2), 0, new AtomicInteger());
+                total += rows.size();
+                for (Arguments.ArgumentSet row : rows) {
+                    seen.add((String) row.get()[0]);
+                }
+            }
+        }
+        assertEquals(10, total, "No row is read twice.");
+        assertEquals(10, seen.size(), "Every row is read.");
+
+        List<Arguments.ArgumentSet> slice = read(file, new String[0], DataFileArgumentsProvider.slice(1, 2, 0, 2), 0, new AtomicInteger());
+        assertEquals(Arrays.asList("row 4", "row 8"), names(slice), "Shard 1, partition 0 reads rows 2 and 6.");
+    }
+
+    /**
+     * Once the failure limit is reached, no more rows are read.
+     */
+    @Test
+    @DisplayName("Failure limit")
+    public void maxFailures() throws IOException {
+        Path file = write("rows.csv", "id\n1\n2\n3\n4\n5\n");
+        AtomicInteger failures = new AtomicInteger();
+
+        List<String> read = new ArrayList<>();
+        try (Stream<Arguments> rows = DataFileArgumentsProvider.rows(file.toString(), new String[0],
+                DataFileArgumentsProviderTest.class, ALL_ROWS, 2, failures, "test")) {
+            rows.forEach(row -> {
+                read.add((String) row.get()[0]);
+                failures.incrementAndGet();
+            });
+        }
+        assertEquals(Arrays.asList("1", "2"), read, "Reading stops after two failed rows.");
+
+        failures.set(5);
+        assertEquals(5, read(file, new String[0], ALL_ROWS, 0, failures).size(), "A limit of 0 reads all rows.");
+    }
+
+    /**
+     * The columns of a JSON Lines file are selected by their keys, values which are not strings are passed as text.
+     */
+    @Test
+    @DisplayName("JSON Lines columns")
+    public void jsonColumns() throws IOException {
+        Path file = write("rows.jsonl", "# users\n"
+                + "{\"user\": \"#admin\", \"password\": \"secret\", \"attempts\": 3, \"roles\": [\"a\"]}\n"
+                + "\n"
+                + "{\"password\": \"other\", \"user\": \"guest\"}\n");
+
+        List<Arguments.ArgumentSet> rows = read(file, "password", "user", "attempts", "roles");
+        assertEquals(Arrays.asList("row 2", "row 4"), names(rows));
+        assertArrayEquals(new Object[]{"secret", "#admin", "3"}, Arrays.copyOf(rows.get(0).get(), 3));
+        assertEquals("[\"a\"]", ((String) rows.get(0).get()[3]).replaceAll("\\s", ""), "Arrays are passed as JSON.");
+        assertArrayEquals(new Object[]{"other", "guest", null, null}, rows.get(1).get(), "Missing keys are passed as null.");
+        assertEquals("guest", read(file).get(1).get()[1], "Without columns, the values are passed in the order of the object.");
+    }
+
+    /**
+     * Quoted fields may contain commas, doubled quotes and line breaks, and the next row is named after its own line.
+     */
+    @Test
+    @DisplayName("Quoted and multi-line CSV fields")
+    public void quotedFields() throws IOException {
+        Path file = write("rows.csv", "name,note\n"
+                + "\"Smith, John\",\"said \"\"hi\"\"\"\n"
+                + "multi,\"first line\nsecond line\"\n"
+                + "last,\n");
+
+        List<Arguments.ArgumentSet> rows = read(file);
+        assertEquals(Arrays.asList("row 2", "row 3", "row 5"), names(rows));
+        assertArrayEquals(new Object[]{"Smith, John", "said \"hi\""}, rows.get(0).get());
+        assertArrayEquals(new Object[]{"multi", "first line\nsecond line"}, rows.get(1).get());
+        assertArrayEquals(new Object[]{"last", ""}, rows.get(2).get());
+        assertArrayEquals(new Object[]{"said \"hi\"", "Smith, John"}, read(file, "note", "name").get(0).get());
+    }
+
+    /**
+     * Comments are only skipped before the header. After it, a value starting with {@code #} and a row of spaces
+     * are rows, only empty lines are skipped.
+     */
+    @Test
+    @DisplayName("Comments before the header")
+    public void comments() throws IOException {
+        Path file = write("rows.csv", "# login cases\n\nusername,password\n#admin,secret\n   ,blank\n\nlast,x\n");
+
+        List<Arguments.ArgumentSet> rows = read(file);
+        assertEquals(Arrays.asList("row 4", "row 5", "row 7"), names(rows));
+        assertArrayEquals(new Object[]{"#admin", "secret"}, rows.get(0).get());
+        assertArrayEquals(new Object[]{"   ", "blank"}, rows.get(1).get());
+    }
+}
@@ -0,0 +1,235 @@
+package Utils;
+
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.FileSystemResultsWriter;
+import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.TestResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The FailureArtifactsTest class checks how the artifacts of failed tests are deduplicated, dropped and capped.
+ * <p>
+ * The failures happen on the login page of the {@link StandInServer}, loaded by an {@link HttpSessionDriver}, which
+ * has a page source but no screenshot and no browser logs. Every test writes with its own
+ * {@link FailureArtifacts.Writer} to a temporary directory and registers its attachments with an Allure lifecycle of
+ * its own, so the queue and the size cap can be set per test. The background thread is held up where a test needs
+ * the failures to wait in the queue.
+ * </p>
+ */
+public class FailureArtifactsTest {
+
+    private static final long NO_CAP = Long.MAX_VALUE / 2;
+
+    @TempDir
+    Path directory;
+
+    private AllureLifecycle lifecycle;
+    private HttpSessionDriver driver;
+
+    @BeforeEach
+    public void openSession() {
+        lifecycle = new AllureLifecycle(new FileSystemResultsWriter(directory.resolve("allure")));
+        driver = new HttpSessionDriver();
+        driver.get(StandInServer.start().url("/login"));
+        WebDriverPool.bind(driver);
+    }
+
+    @AfterEach
+    public void closeSession() {
+        WebDriverPool.unbind();
+        driver.quit();
+    }
+
+    private FailureArtifacts.Writer writer(long maxBytes, int queueSize) {
+        return new FailureArtifacts.Writer(directory.resolve("artifacts"), directory.resolve("allure"), lifecycle,
+                maxBytes, 1, queueSize);
+    }
+
+    /**
+     * Runs the extension for a failed Allure test case and returns the attachments registered with it.
+     */
+    private List<Attachment> fail(FailureArtifacts.Writer writer, String name) {
+        String uuid = UUID.randomUUID().toString();
+        lifecycle.scheduleTestCase(new TestResult().setUuid(uuid).setName(name));
+        lifecycle.startTestCase(uuid);
+        new FailureArtifacts(writer).afterTestExecution(failedTest(name));
+        List<Attachment> attachments = new ArrayList<>();
+        lifecycle.updateTestCase(uuid, result -> attachments.addAll(result.getAttachments()));
+        lifecycle.stopTestCase(uuid);
+        lifecycle.writeTestCase(uuid);
+        return attachments;
+    }
+
+    /**
+     * Holds up the background thread of the writer until the returned latch is counted down.
+     */
+    private static CountDownLatch block(FailureArtifacts.Writer writer) {
+        CountDownLatch latch = new CountDownLatch(1);
+        writer.executor().execute(() -> {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        return latch;
+    }
+
+    private byte[] pageSource() {
+        return driver.getPageSource().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private List<Path> storedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory.resolve("artifacts"))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("pageSource-")).collect(Collectors.toList());
+        }
+    }
+
+    private long manifestLines() throws IOException {
+        return Files.readAllLines(directory.resolve("artifacts").resolve("failures.jsonl")).size();
+    }
+
+    /**
+     * Two tests failing on the same page share one stored file, and the second attachment is a link to the first.
+     */
+    @Test
+    @DisplayName("Identical artifacts are stored once")
+    public void deduplication() throws IOException {
+        FailureArtifacts.Writer writer = writer(NO_CAP, 8);
+
+        List<Attachment> first = fail(writer, "first");
+        List<Attachment> second = fail(writer, "second");
+        writer.shutdown();
+
+        assertEquals(2, writer.getCapturedCount());
+        assertEquals(1, writer.getDeduplicatedCount());
+        assertEquals(1, storedFiles().size(), "The page source is stored once.");
+        assertEquals(2, manifestLines(), "Every failure has its line in the manifest.");
+        assertEquals(1, first.size());
+        assertEquals(1, second.size());
+        Path firstAttachment = directory.resolve("allure").resolve(first.get(0).getSource());
+        Path secondAttachment = directory.resolve("allure").resolve(second.get(0).getSource());
+        assertArrayEquals(pageSource(), Files.readAllBytes(firstAttachment));
+        assertTrue(Files.isSameFile(firstAttachment, secondAttachment), "The second attachment is a link to the first.");
+        assertEquals(Files.size(storedFiles().get(0)) + pageSource().length, writer.getBytes(),
+                "Only the stored file and the first attachment are counted.");
+    }
+
+    /**
+     * A failure which does not fit into the queue is dropped without attachments, and its reservation is given back.
+     */
+    @Test
+    @DisplayName("Failures are dropped when the queue is full")
+    public void queueFull() throws IOException {
+        FailureArtifacts.Writer writer = writer(NO_CAP, 1);
+        CountDownLatch latch = block(writer);
+
+        List<Attachment> queued = fail(writer, "queued");
+        long reserved = writer.getBytes();
+        List<Attachment> dropped = fail(writer, "dropped");
+
+        assertEquals(1, writer.getDroppedCount());
+        assertTrue(dropped.isEmpty(), "A dropped failure has no attachments.");
+        assertEquals(reserved, writer.getBytes(), "The reservation of a dropped failure is given back.");
+        latch.countDown();
+        writer.shutdown();
+
+        assertEquals(1, writer.getCapturedCount());
+        assertEquals(1, queued.size());
+        assertTrue(Files.isRegularFile(directory.resolve("allure").resolve(queued.get(0).getSource())));
+        assertEquals(1, manifestLines());
+    }
+
+    /**
+     * Once the size cap is reserved, further artifacts are skipped on the test thread, even while the earlier ones
+     * are still waiting to be written, and the cap is not exceeded.
+     */
+    @Test
+    @DisplayName("Artifacts stay within the size cap")
+    public void sizeCap() throws IOException {
+        long maxBytes = 2L * pageSource().length + 100;
+        FailureArtifacts.Writer writer = writer(maxBytes, 8);
+        CountDownLatch latch = block(writer);
+
+        List<Attachment> first = fail(writer, "first");
+        List<Attachment> second = fail(writer, "second");
+
+        assertEquals(1, writer.getSkippedCount());
+        assertEquals(1, first.size());
+        assertTrue(second.isEmpty(), "No attachment is registered for a skipped artifact.");
+        assertTrue(writer.getBytes() <= maxBytes);
+        latch.countDown();
+        writer.shutdown();
+
+        assertEquals(2, writer.getCapturedCount(), "The failure is still described in the manifest.");
+        assertEquals(2, manifestLines());
+        assertEquals(0, writer.getDeduplicatedCount(), "The skipped page source is not written.");
+        assertEquals(Files.size(storedFiles().get(0)) + pageSource().length, writer.getBytes());
+        assertTrue(writer.getBytes() <= maxBytes);
+    }
+
+    /**
+     * A failed test without a leased session has nothing to capture and does not fail a second time.
+     */
+    @Test
+    @DisplayName("Tests without a session")
+    public void noSession() {
+        WebDriverPool.unbind();
+        FailureArtifacts.Writer writer = writer(NO_CAP, 8);
+
+        assertTrue(fail(writer, "no session").isEmpty());
+        writer.shutdown();
+        assertEquals(0, writer.getCapturedCount());
+    }
+
+    /**
+     * Creates the extension context of a failed test, which answers the calls of the {@link FailureArtifacts}.
+     */
+    private static ExtensionContext failedTest(String name) {
+        ExtensionContext.Store store = (ExtensionContext.Store) Proxy.newProxyInstance(
+                ExtensionContext.class.getClassLoader(), new Class<?>[]{ExtensionContext.Store.class},
+                (proxy, call, args) -> null);
+        AssertionError failure = new AssertionError("Error message is displayed.");
+        return (ExtensionContext) Proxy.newProxyInstance(ExtensionContext.class.getClassLoader(),
+                new Class<?>[]{ExtensionContext.class}, (proxy, call, args) -> {
+                    switch (call.getName()) {
+                        case "getStore":
+                            return store;
+                        case "getDisplayName":
+                            return name;
+                        case "getRequiredTestClass":
+                            return FailureArtifactsTest.class;
+                        case "getExecutionException":
+                            return Optional.of(failure);
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException(call.getName());
+                    }
+                });
+    }
+}
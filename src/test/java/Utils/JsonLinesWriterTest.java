@@ -0,0 +1,62 @@
+package Utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The JsonLinesWriterTest class checks that a blocking writer keeps every record and a dropping writer counts
+ * the records it loses.
+ */
+public class JsonLinesWriterTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Many more records than the buffer holds are all written, in order, and writing after close fails.
+     */
+    @Test
+    @DisplayName("A blocking writer keeps every record")
+    public void block() throws IOException {
+        Path file = directory.resolve("results.jsonl");
+        JsonLinesWriter writer = new JsonLinesWriter(file, 4, JsonLinesWriter.Overflow.BLOCK);
+        for (int i = 0; i < 5000; i++) {
+            writer.write(Collections.singletonMap("n", i));
+        }
+        writer.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(5000, lines.size());
+        assertEquals("{\"n\": 4999}", lines.get(4999));
+        assertEquals(0, writer.getDroppedCount());
+        assertThrows(IllegalStateException.class, () -> writer.write(Collections.singletonMap("n", -1)),
+                "A record written after close is not lost silently.");
+    }
+
+    /**
+     * A dropping writer returns false for a record written after close and counts it.
+     */
+    @Test
+    @DisplayName("A dropping writer counts lost records")
+    public void drop() throws IOException {
+        Path file = directory.resolve("manifest.jsonl");
+        JsonLinesWriter writer = new JsonLinesWriter(file, 4, JsonLinesWriter.Overflow.DROP);
+        writer.write(Collections.singletonMap("n", 1));
+        writer.close();
+
+        assertFalse(writer.write(Collections.singletonMap("n", 2)));
+        assertEquals(1, writer.getDroppedCount());
+        assertEquals(1, Files.readAllLines(file).size());
+    }
+}